@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -33,12 +34,14 @@ public class AuthController {
             @ApiResponse(responseCode = "200", description = "Autenticación exitosa",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = JwtAuthResponse.class))),
             @ApiResponse(responseCode = "401", description = "Credenciales inválidas", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Usuario no encontrado", content = @Content)
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos para el usuario o la IP", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Demasiados inicios de sesión en curso", content = @Content)
     })
     @PostMapping("/login")
     public ResponseEntity<JwtAuthResponse> login(
-            @Valid @RequestBody LoginRequest request) {
-        JwtAuthResponse response = authService.authenticate(request);
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        JwtAuthResponse response = authService.authenticate(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 }
@@ -2,11 +2,10 @@ package pe.jesusamigo.backend_libreria.auth.service;
 
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 import pe.jesusamigo.backend_libreria.auth.dto.JwtAuthResponse;
 import pe.jesusamigo.backend_libreria.auth.dto.LoginRequest;
 import pe.jesusamigo.backend_libreria.persons.person.dto.PersonResponseDTO;
@@ -14,8 +13,6 @@ import pe.jesusamigo.backend_libreria.persons.person.entity.Person;
 import pe.jesusamigo.backend_libreria.persons.person.mapper.PersonMapper;
 import pe.jesusamigo.backend_libreria.persons.person.repository.PersonRepository;
 import pe.jesusamigo.backend_libreria.security.JwtTokenProvider;
-import pe.jesusamigo.backend_libreria.user.entity.User;
-import pe.jesusamigo.backend_libreria.user.repository.UserRepository;
 
 import java.util.Optional;
 
@@ -27,21 +24,26 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
-    private final UserRepository userRepository;
     private final PersonRepository personRepository;
     private final PersonMapper personMapper;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+
+    public JwtAuthResponse authenticate(LoginRequest request, String clientIp) {
+        loginRateLimiter.acquire(request.getUsername(), clientIp);
 
-    public JwtAuthResponse authenticate(LoginRequest request) {
         UsernamePasswordAuthenticationToken authToken =
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword());
-        authenticationManager.authenticate(authToken);
-
-        String jwt = tokenProvider.generateToken(authToken);
+        // El token se genera con la autenticación resultante, que ya incluye rol y permisos.
+        // La verificación de BCrypt corre en el pool acotado, no en el hilo de la solicitud.
+        Authentication authentication =
+                passwordHashingExecutor.execute(() -> authenticationManager.authenticate(authToken));
+        loginRateLimiter.reset(request.getUsername());
 
-        User userEntity = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado."));
+        String jwt = tokenProvider.generateToken(authentication);
 
-        Optional<Person> personOptional = personRepository.findByUserUsername(request.getUsername());
+        // El usuario ya fue cargado y verificado por el AuthenticationManager; solo falta la persona
+        Optional<Person> personOptional = personRepository.findByUserUsername(authentication.getName());
         PersonResponseDTO personResponseDTO = personOptional
                 .map(personMapper::toDto)     // ahora llamamos al método de instancia
                 .orElse(null);
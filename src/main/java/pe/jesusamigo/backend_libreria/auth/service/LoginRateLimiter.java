@@ -0,0 +1,64 @@
+package pe.jesusamigo.backend_libreria.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de intentos de inicio de sesión por usuario y por IP en una ventana fija.
+ * <p>
+ * El intento se cuenta antes de verificar la contraseña, de modo que los excesos se rechazan
+ * (429) sin gastar CPU en BCrypt. Un inicio de sesión exitoso reinicia el contador del usuario.
+ * Los contadores son locales a la instancia.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, AtomicInteger> attemptsByUser;
+    private final Cache<String, AtomicInteger> attemptsByIp;
+    private final int maxPerUser;
+    private final int maxPerIp;
+
+    public LoginRateLimiter(@Value("${app.security.login.rate-limit.window:PT1M}") Duration window,
+                            @Value("${app.security.login.rate-limit.per-user:10}") int maxPerUser,
+                            @Value("${app.security.login.rate-limit.per-ip:100}") int maxPerIp,
+                            @Value("${app.security.login.rate-limit.max-keys:100000}") long maxKeys) {
+        // expireAfterWrite: la ventana se cuenta desde el primer intento (los incrementos no renuevan la entrada)
+        this.attemptsByUser = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterWrite(window).build();
+        this.attemptsByIp = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterWrite(window).build();
+        this.maxPerUser = maxPerUser;
+        this.maxPerIp = maxPerIp;
+    }
+
+    /**
+     * Registra un intento y lo rechaza si el usuario o la IP superaron su límite.
+     */
+    public void acquire(String username, String clientIp) {
+        if (exceeded(attemptsByIp, clientIp, maxPerIp) || exceeded(attemptsByUser, userKey(username), maxPerUser)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Demasiados intentos de inicio de sesión; intente nuevamente más tarde.");
+        }
+    }
+
+    public void reset(String username) {
+        attemptsByUser.invalidate(userKey(username));
+    }
+
+    private static boolean exceeded(Cache<String, AtomicInteger> attempts, String key, int max) {
+        if (key == null) {
+            return false;
+        }
+        return attempts.get(key, k -> new AtomicInteger()).incrementAndGet() > max;
+    }
+
+    private static String userKey(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package pe.jesusamigo.backend_libreria.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado para la verificación de contraseñas (BCrypt) del inicio de sesión.
+ * <p>
+ * El cálculo de BCrypt es intensivo en CPU: con muchos inicios de sesión simultáneos, hacerlo
+ * en los hilos de las solicitudes los satura a todos. Aquí se limita a un hilo por núcleo
+ * (configurable) con una cola acotada; si la cola está llena o la espera supera el tiempo
+ * límite se responde 503 en lugar de acumular solicitudes.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final String OVERLOADED_MESSAGE =
+            "Demasiados inicios de sesión en curso; intente nuevamente en unos segundos.";
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public PasswordHashingExecutor(@Value("${app.security.login.hashing-threads:0}") int threads,
+                                   @Value("${app.security.login.queue-capacity:200}") int queueCapacity,
+                                   @Value("${app.security.login.timeout:PT10S}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "login-hashing-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+    }
+
+    /**
+     * Ejecuta la tarea en el pool y espera su resultado; las excepciones de la tarea se
+     * propagan tal cual (por ejemplo, credenciales inválidas).
+     */
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MESSAGE);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MESSAGE);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MESSAGE);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,59 @@
+package pe.jesusamigo.backend_libreria.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página obtenida por cursor (paginación keyset). No incluye el total de registros.
+ */
+@Schema(
+        name = "CursorPage",
+        description = "Página de resultados con el cursor para solicitar la siguiente"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    @Schema(description = "Elementos de la página")
+    private List<T> content;
+
+    @Schema(description = "Cursor opaco para la siguiente página (nulo si no hay más)", example = "MjAyNS0wNi0wMVQxMDoxNTozMHwxMjM")
+    private String nextCursor;
+
+    @Schema(description = "Indica si existen más elementos", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Tamaño de página solicitado", example = "20")
+    private int size;
+
+    /**
+     * Construye la página a partir de {@code size + 1} filas leídas: la fila extra solo indica
+     * que hay más resultados y no se devuelve.
+     *
+     * @param rows     filas leídas (como máximo {@code size + 1})
+     * @param size     tamaño de página solicitado
+     * @param cursorOf genera el cursor a partir de la última fila devuelta
+     * @param mapper   conversión de cada fila a DTO
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, String> cursorOf, Function<E, T> mapper) {
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero");
+        }
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(pageRows.stream().map(mapper).toList())
+                .nextCursor(hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .hasNext(hasNext)
+                .size(size)
+                .build();
+    }
+}
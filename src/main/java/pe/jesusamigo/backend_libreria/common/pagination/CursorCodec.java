@@ -0,0 +1,57 @@
+package pe.jesusamigo.backend_libreria.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Codifica las claves de ordenamiento de la última fila en un cursor opaco (Base64 URL-safe).
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (Object key : keys) {
+            if (!raw.isEmpty()) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return las claves del cursor, o {@code null} si no se envió cursor (primera página)
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static String[] decode(String cursor, int expectedKeys) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\" + SEPARATOR, -1);
+            if (keys.length == expectedKeys) {
+                return keys;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Se informa abajo como cursor inválido
+        }
+        throw new IllegalArgumentException("El cursor de paginación no es válido");
+    }
+
+    public static LocalDateTime toDateTime(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido");
+        }
+    }
+}
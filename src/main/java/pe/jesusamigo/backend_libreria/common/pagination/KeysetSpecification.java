@@ -0,0 +1,35 @@
+package pe.jesusamigo.backend_libreria.common.pagination;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public class KeysetSpecification {
+
+    public static final String ID = "id";
+
+    /**
+     * Filas posteriores a la posición (value, id) según el orden indicado.
+     * El ID desempata filas con el mismo valor, por lo que el orden debe incluirlo (ver {@link #sort}).
+     */
+    public static <T, V extends Comparable<? super V>> Specification<T> seekAfter(String attribute, V value, Integer id,
+                                                                                  boolean descending) {
+        return (root, query, cb) -> {
+            if (value == null || id == null) {
+                return null;
+            }
+            if (descending) {
+                return cb.or(
+                        cb.lessThan(root.get(attribute), value),
+                        cb.and(cb.equal(root.get(attribute), value), cb.lessThan(root.get(ID), id)));
+            }
+            return cb.or(
+                    cb.greaterThan(root.get(attribute), value),
+                    cb.and(cb.equal(root.get(attribute), value), cb.greaterThan(root.get(ID), id)));
+        };
+    }
+
+    public static Sort sort(String attribute, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, attribute, ID);
+    }
+}
@@ -0,0 +1,74 @@
+package pe.jesusamigo.backend_libreria.common.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reintenta operaciones de stock que fallan por bloqueo optimista (otra transacción modificó
+ * el producto entre la lectura y la escritura).
+ * <p>
+ * Cada intento se ejecuta en una transacción nueva: tras un conflicto la transacción anterior
+ * queda marcada para rollback y el producto debe volver a leerse. Si ya hay una transacción
+ * activa la operación se ejecuta una sola vez y el reintento queda a cargo de quien la abrió.
+ */
+@Component
+public class OptimisticRetryExecutor {
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.stock.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.stock.retry.initial-backoff:PT0.02S}")
+    private Duration initialBackoff;
+
+    @Value("${app.stock.retry.max-backoff:PT0.2S}")
+    private Duration maxBackoff;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        long backoff = initialBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+                log.debug("Conflicto de versión (intento {}/{}), se reintenta", attempt, maxAttempts);
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+            }
+        }
+    }
+
+    // Espera aleatoria hasta el límite actual: evita que los escritores en conflicto reintenten a la vez
+    private static void sleep(long bound) {
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound / 2, bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pe.jesusamigo.backend_libreria.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Configuración de caches en memoria (Caffeine).
+ * <p>
+ * El interceptor de cache se ejecuta antes que el transaccional, de modo que un acierto
+ * no abre transacción y las invalidaciones ocurren después del commit.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    // === Datos de referencia del catálogo ===
+    public static final String AUTHORS = "authors";
+    public static final String AUTHOR_LIST = "authorList";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_LIST = "categoryList";
+    public static final String EDITORIALS = "editorials";
+    public static final String EDITORIAL_LIST = "editorialList";
+
+    // === Conteos por filtro del catálogo público ===
+    public static final String PRODUCT_FACETS = "productFacets";
+
+    // === Usuarios autenticados (filtro JWT) ===
+    public static final String USER_DETAILS = "userDetails";
+
+    @Value("${app.cache.reference.max-size:1000}")
+    private long referenceMaxSize;
+
+    @Value("${app.cache.reference.ttl:PT30M}")
+    private Duration referenceTtl;
+
+    @Value("${app.cache.facets.max-size:500}")
+    private long facetsMaxSize;
+
+    @Value("${app.cache.facets.ttl:PT1M}")
+    private Duration facetsTtl;
+
+    @Value("${app.cache.user-details.max-size:10000}")
+    private long userDetailsMaxSize;
+
+    @Value("${app.cache.user-details.ttl:PT5M}")
+    private Duration userDetailsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        for (String name : new String[]{AUTHORS, AUTHOR_LIST, CATEGORIES, CATEGORY_LIST, EDITORIALS, EDITORIAL_LIST}) {
+            manager.registerCustomCache(name, referenceCache().build());
+        }
+        manager.registerCustomCache(PRODUCT_FACETS, Caffeine.newBuilder()
+                .maximumSize(facetsMaxSize)
+                .expireAfterWrite(facetsTtl)
+                .build());
+        manager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaxSize)
+                .expireAfterWrite(userDetailsTtl)
+                .build());
+        // Si se invoca dentro de una transacción, las escrituras/invalidaciones se aplican tras el commit
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    private Caffeine<Object, Object> referenceCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(referenceMaxSize)
+                .expireAfterWrite(referenceTtl);
+    }
+}
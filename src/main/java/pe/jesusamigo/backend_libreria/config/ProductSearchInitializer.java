@@ -0,0 +1,83 @@
+package pe.jesusamigo.backend_libreria.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pe.jesusamigo.backend_libreria.product.service.ProductSearchService;
+
+/**
+ * Crea (de forma idempotente) la estructura de búsqueda de texto completo de productos:
+ * extensión pg_trgm, columna {@code search_vector} mantenida por trigger (incluye el nombre
+ * del autor) e índices GIN. Si la base no lo permite, la búsqueda usa el filtro LIKE.
+ */
+@Component
+public class ProductSearchInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchInitializer.class);
+
+    private static final String[] DDL = {
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector",
+            """
+            CREATE OR REPLACE FUNCTION products_search_vector_update() RETURNS trigger AS $$
+            BEGIN
+                NEW.search_vector :=
+                        setweight(to_tsvector('simple', coalesce(NEW.title, '')), 'A')
+                        || setweight(to_tsvector('simple', coalesce(NEW.isbn, '') || ' ' || coalesce(NEW.code, '')), 'A')
+                        || setweight(to_tsvector('simple', coalesce((SELECT a.name FROM authors a WHERE a.id = NEW.author_id), '')), 'B')
+                        || setweight(to_tsvector('simple', coalesce(NEW.description, '')), 'C');
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """,
+            "DROP TRIGGER IF EXISTS products_search_vector_trg ON products",
+            """
+            CREATE TRIGGER products_search_vector_trg
+                BEFORE INSERT OR UPDATE OF title, isbn, code, description, author_id ON products
+                FOR EACH ROW EXECUTE FUNCTION products_search_vector_update()
+            """,
+            // Si cambia el nombre de un autor se recalculan sus productos
+            """
+            CREATE OR REPLACE FUNCTION authors_search_vector_refresh() RETURNS trigger AS $$
+            BEGIN
+                UPDATE products SET author_id = author_id WHERE author_id = NEW.id;
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """,
+            "DROP TRIGGER IF EXISTS authors_search_vector_trg ON authors",
+            """
+            CREATE TRIGGER authors_search_vector_trg
+                AFTER UPDATE OF name ON authors
+                FOR EACH ROW WHEN (OLD.name IS DISTINCT FROM NEW.name)
+                EXECUTE FUNCTION authors_search_vector_refresh()
+            """,
+            "UPDATE products SET title = title WHERE search_vector IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_products_title_trgm ON products USING gin (title gin_trgm_ops)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchService productSearchService;
+
+    public ProductSearchInitializer(JdbcTemplate jdbcTemplate, ProductSearchService productSearchService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productSearchService = productSearchService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            for (String statement : DDL) {
+                jdbcTemplate.execute(statement);
+            }
+            productSearchService.enableFullTextSearch();
+            log.info("✔ Búsqueda de texto completo de productos habilitada");
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo preparar la búsqueda de texto completo, se usará LIKE: {}", ex.getMessage());
+        }
+    }
+}
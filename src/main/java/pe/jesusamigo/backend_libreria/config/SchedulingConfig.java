@@ -0,0 +1,12 @@
+package pe.jesusamigo.backend_libreria.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas ({@code @Scheduled}) de la aplicación.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -9,31 +9,45 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import pe.jesusamigo.backend_libreria.exception.ApiErrorWriter;
 import pe.jesusamigo.backend_libreria.security.CustomUserDetailsService;
 import pe.jesusamigo.backend_libreria.security.JwtAuthenticationFilter;
 import pe.jesusamigo.backend_libreria.security.JwtTokenProvider;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     @Value("${app.frontend.base-url}")
     private String frontendBaseUrl;
 
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ApiErrorWriter apiErrorWriter;
 
-    public SecurityConfig(CustomUserDetailsService uds, JwtTokenProvider jwtProvider) {
+    public SecurityConfig(CustomUserDetailsService uds, JwtTokenProvider jwtProvider,
+                          TokenVersionRegistry tokenVersions, ApiErrorWriter apiErrors) {
         this.userDetailsService = uds;
         this.jwtTokenProvider = jwtProvider;
+        this.tokenVersionRegistry = tokenVersions;
+        this.apiErrorWriter = apiErrors;
     }
 
     @Bean
@@ -48,7 +62,7 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         JwtAuthenticationFilter jwtFilter =
-                new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+                new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, tokenVersionRegistry, apiErrorWriter);
 
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -88,8 +102,16 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * BCrypt con la fuerza configurada; los hashes nuevos llevan el prefijo {@code {bcrypt}}.
+     * Los anteriores (sin prefijo o de menor fuerza) siguen siendo válidos y se recodifican
+     * al iniciar sesión.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
@@ -0,0 +1,47 @@
+package pe.jesusamigo.backend_libreria.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
+import pe.jesusamigo.backend_libreria.sale.entity.Sale;
+import pe.jesusamigo.backend_libreria.sale.entity.SaleItem;
+
+/**
+ * Alinea las secuencias de ID (ventas, detalle de venta y movimientos de stock) con los
+ * datos existentes. Estas tablas usaban columnas IDENTITY; Hibernate crea las secuencias
+ * empezando en 1, por lo que sin este ajuste los nuevos IDs chocarían con los ya registrados.
+ * <p>
+ * Se ejecuta al terminar de crear los singletons (el esquema ya está actualizado) y antes de
+ * que arranque el servidor web y las tareas programadas, de modo que ninguna inserción obtiene
+ * un ID de la secuencia sin alinear.
+ */
+@Component
+public class SequenceInitializer implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignSequence(Sale.TABLE_NAME, Sale.SEQUENCE_NAME, Sale.ID_ALLOCATION_SIZE);
+        alignSequence(SaleItem.TABLE_NAME, SaleItem.SEQUENCE_NAME, SaleItem.ID_ALLOCATION_SIZE);
+        alignSequence(StockMovement.TABLE_NAME, StockMovement.SEQUENCE_NAME, StockMovement.ID_ALLOCATION_SIZE);
+    }
+
+    private void alignSequence(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        if (maxId != null && lastValue != null && lastValue <= maxId) {
+            // Se deja un bloque completo de margen sobre el máximo actual
+            jdbcTemplate.queryForObject("SELECT setval(CAST(? AS regclass), ?)", Long.class, sequence, maxId + allocationSize);
+            log.info("✔ Secuencia {} alineada con {} (max id {})", sequence, table, maxId);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package pe.jesusamigo.backend_libreria.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import pe.jesusamigo.backend_libreria.product.service.StockReservationLedger;
+
+/**
+ * Aplica al arrancar los descuentos de stock de ventas que quedaron pendientes (por ejemplo,
+ * tras una caída con la reserva en memoria habilitada) y carga los contadores de la reserva.
+ */
+@Component
+public class StockReservationInitializer implements ApplicationRunner {
+
+    private final StockReservationLedger stockReservationLedger;
+
+    public StockReservationInitializer(StockReservationLedger stockReservationLedger) {
+        this.stockReservationLedger = stockReservationLedger;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        stockReservationLedger.reconcile();
+    }
+}
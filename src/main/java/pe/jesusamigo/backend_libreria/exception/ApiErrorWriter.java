@@ -0,0 +1,81 @@
+package pe.jesusamigo.backend_libreria.exception;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import pe.jesusamigo.backend_libreria.exception.dto.ApiError;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Construcción y escritura de las respuestas de error ({@link ApiError}).
+ * <p>
+ * Los manejadores de {@link GlobalExceptionHandler} devuelven el {@link ApiError} y lo
+ * serializa Spring MVC. Fuera de MVC (filtros de seguridad) se escribe directamente con el
+ * {@link ObjectMapper} de la aplicación: la parte fija de cada estado HTTP ({@code status} y
+ * {@code error}) queda serializada de antemano y solo se codifican fecha, mensaje y ruta.
+ */
+@Component
+public class ApiErrorWriter {
+
+    // Mismo formato que usa Jackson para LocalDateTime (fechas como texto ISO)
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final JsonFactory jsonFactory;
+    private final Map<HttpStatus, String> statusFragments = new EnumMap<>(HttpStatus.class);
+
+    public ApiErrorWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        for (HttpStatus status : HttpStatus.values()) {
+            statusFragments.put(status, ",\"status\":" + status.value()
+                    + ",\"error\":\"" + new String(encoder.quoteAsString(status.getReasonPhrase())) + "\"");
+        }
+    }
+
+    public ResponseEntity<ApiError> response(HttpStatus status, String message, HttpServletRequest request) {
+        return response(status, message, request, null);
+    }
+
+    public ResponseEntity<ApiError> response(HttpStatus status, String message, HttpServletRequest request,
+                                             Map<String, String> fieldErrors) {
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                request.getRequestURI(),
+                fieldErrors
+        );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Escribe el error directamente en la respuesta, con los mismos campos y formato que
+     * {@link ApiError} serializado por Spring MVC.
+     */
+    public void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = jsonFactory.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", TIMESTAMP_FORMAT.format(LocalDateTime.now()));
+            generator.writeRaw(statusFragments.get(status));
+            generator.writeStringField("message", message);
+            generator.writeStringField("path", path);
+            generator.writeNullField("fieldErrors");
+            generator.writeEndObject();
+        }
+    }
+}
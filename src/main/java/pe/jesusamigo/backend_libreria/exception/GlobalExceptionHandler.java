@@ -1,7 +1,9 @@
 package pe.jesusamigo.backend_libreria.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -23,8 +25,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final ApiErrorWriter apiErrors;
+
     // Errores de validación (por ejemplo, parámetros de entrada incorrectos)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidationExceptions(MethodArgumentNotValidException ex,
@@ -33,45 +38,21 @@ public class GlobalExceptionHandler {
         for (FieldError error : ex.getBindingResult().getFieldErrors()) {
             fieldErrors.put(error.getField(), error.getDefaultMessage());
         }
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                "Validation failed",
-                request.getRequestURI(),
-                fieldErrors
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return apiErrors.response(HttpStatus.BAD_REQUEST, "Validation failed", request, fieldErrors);
     }
 
     // Manejo de argumentos o estados inválidos
     @ExceptionHandler({IllegalArgumentException.class, IllegalStateException.class})
     public ResponseEntity<ApiError> handleRuntimeExceptions(RuntimeException ex,
                                                             HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return apiErrors.response(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
     // Errores en el parseo de JSON o formato incorrecto de la solicitud
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiError> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex,
                                                                           HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                "Malformed JSON request",
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return apiErrors.response(HttpStatus.BAD_REQUEST, "Malformed JSON request", request);
     }
 
     // Violaciones de integridad en la base de datos
@@ -79,30 +60,22 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiError> handleDataIntegrityViolationException(DataIntegrityViolationException ex,
                                                                           HttpServletRequest request) {
         String detailedMessage = ex.getMostSpecificCause() != null ? ex.getMostSpecificCause().getMessage() : ex.getMessage();
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.CONFLICT.value(),
-                HttpStatus.CONFLICT.getReasonPhrase(),
-                "Database error: " + detailedMessage,
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        return apiErrors.response(HttpStatus.CONFLICT, "Database error: " + detailedMessage, request);
+    }
+
+    // Conflictos de versión: el recurso fue modificado por otra operación
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                            HttpServletRequest request) {
+        return apiErrors.response(HttpStatus.CONFLICT,
+                "El recurso fue modificado por otra operación; vuelva a consultarlo e intente de nuevo", request);
     }
 
     // Errores de acceso denegado, normalmente asociados a temas de autorización
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiError> handleAccessDeniedException(AccessDeniedException ex,
                                                                 HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.FORBIDDEN.value(),
-                HttpStatus.FORBIDDEN.getReasonPhrase(),
-                "Access Denied: " + ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+        return apiErrors.response(HttpStatus.FORBIDDEN, "Access Denied: " + ex.getMessage(), request);
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -122,60 +95,28 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiError> handleResourceNotFoundException(ResourceNotFoundException ex,
                                                                     HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.NOT_FOUND.value(),
-                HttpStatus.NOT_FOUND.getReasonPhrase(),
-                ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return apiErrors.response(HttpStatus.NOT_FOUND, ex.getMessage(), request);
     }
 
     // Errores de autenticación (por ejemplo, login fallido)
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiError> handleAuthenticationException(AuthenticationException ex,
                                                                   HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.UNAUTHORIZED.value(),
-                HttpStatus.UNAUTHORIZED.getReasonPhrase(),
-                "Error de autenticación: " + ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return apiErrors.response(HttpStatus.UNAUTHORIZED, "Error de autenticación: " + ex.getMessage(), request);
     }
 
     // Manejo para métodos HTTP no soportados en la solicitud
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<ApiError> handleHttpRequestMethodNotSupportedException(HttpRequestMethodNotSupportedException ex,
                                                                                  HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.METHOD_NOT_ALLOWED.value(),
-                HttpStatus.METHOD_NOT_ALLOWED.getReasonPhrase(),
-                "Method Not Allowed: " + ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.METHOD_NOT_ALLOWED);
+        return apiErrors.response(HttpStatus.METHOD_NOT_ALLOWED, "Method Not Allowed: " + ex.getMessage(), request);
     }
 
     // Solicitudes con parámetros faltantes
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<ApiError> handleMissingServletRequestParameterException(MissingServletRequestParameterException ex,
                                                                                   HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                "Missing parameter: " + ex.getParameterName(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return apiErrors.response(HttpStatus.BAD_REQUEST, "Missing parameter: " + ex.getParameterName(), request);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
@@ -184,44 +125,19 @@ public class GlobalExceptionHandler {
         String message = String.format("El parámetro '%s' no es válido: %s",
                 ex.getName(), ex.getMessage());
 
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                message,
-                request.getRequestURI(),
-                null
-        );
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return apiErrors.response(HttpStatus.BAD_REQUEST, message, request);
     }
 
     // Errores por exceder el tamaño máximo permitido en una carga de archivos
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ApiError> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex,
                                                                          HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.PAYLOAD_TOO_LARGE.value(),
-                HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase(),
-                "File size exceeds the permitted limit: " + ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+        return apiErrors.response(HttpStatus.PAYLOAD_TOO_LARGE, "File size exceeds the permitted limit: " + ex.getMessage(), request);
     }
 
     // Manejador global para cualquier otra excepción no controlada previamente
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAllExceptions(Exception ex, HttpServletRequest request) {
-        ApiError errorResponse = new ApiError(
-                LocalDateTime.now(),
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
-                "Se produjo un error inesperado:" + ex.getMessage(),
-                request.getRequestURI(),
-                null
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        return apiErrors.response(HttpStatus.INTERNAL_SERVER_ERROR, "Se produjo un error inesperado:" + ex.getMessage(), request);
     }
 }
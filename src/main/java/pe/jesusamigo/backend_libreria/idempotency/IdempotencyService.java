@@ -0,0 +1,140 @@
+package pe.jesusamigo.backend_libreria.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén de respuestas por clave de idempotencia (cabecera {@value #HEADER}).
+ * <p>
+ * Un reintento con la misma clave recibe la respuesta ya generada sin volver a ejecutar la
+ * operación ni tocar la base de datos. Si la primera solicitud aún está en curso, el
+ * reintento espera su resultado hasta {@code app.idempotency.in-flight-timeout} y luego
+ * responde 409. La reutilización de una clave con otros datos se detecta comparando el
+ * SHA-256 del cuerpo serializado. Las claves se aíslan por operación y usuario, y expiran
+ * tras el TTL configurado. Si la operación falla, la clave se libera para permitir reintentar.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int KEY_MAX_LENGTH = 64;
+
+    private final ConcurrentMap<String, Entry> entries;
+    private final ObjectMapper objectMapper;
+    private final Duration inFlightTimeout;
+
+    public IdempotencyService(ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${app.idempotency.max-size:100000}") long maxSize,
+                              @Value("${app.idempotency.in-flight-timeout:PT30S}") Duration inFlightTimeout) {
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.entries = cache.asMap();
+        this.objectMapper = objectMapper;
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave.
+     *
+     * @param scope     operación protegida (p. ej. "sale")
+     * @param key       valor de la cabecera; si es nulo la operación se ejecuta sin deduplicar
+     * @param request   cuerpo de la solicitud, para detectar la reutilización de la clave con otros datos
+     * @param operation operación a ejecutar
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> operation) {
+        if (!StringUtils.hasText(key)) {
+            return operation.get();
+        }
+        if (key.length() > KEY_MAX_LENGTH) {
+            throw new IllegalArgumentException("La cabecera " + HEADER + " no puede superar los " + KEY_MAX_LENGTH + " caracteres");
+        }
+
+        String storeKey = scope + ':' + currentUsername() + ':' + key;
+        byte[] requestDigest = digest(request);
+        Entry entry = new Entry(requestDigest, new CompletableFuture<>());
+        Entry existing = entries.putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            return replay(existing, requestDigest);
+        }
+
+        try {
+            ResponseEntity<T> response = operation.get();
+            entry.response().complete(response);
+            return response;
+        } catch (Throwable ex) {
+            // También ante un Error: si no, la clave quedaría con una respuesta que nunca llega
+            entries.remove(storeKey, entry);
+            entry.response().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Entry existing, byte[] requestDigest) {
+        if (!MessageDigest.isEqual(existing.requestDigest(), requestDigest)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La clave " + HEADER + " ya fue usada con otros datos");
+        }
+        ResponseEntity<T> response;
+        try {
+            response = (ResponseEntity<T>) existing.response().get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // La solicitud original falló mientras se esperaba: se propaga el mismo error
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "La solicitud original con esta clave " + HEADER + " aún está en curso");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "La solicitud original con esta clave " + HEADER + " aún está en curso");
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    private byte[] digest(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("No se pudo calcular el resumen de la solicitud", ex);
+        }
+    }
+
+    private record Entry(byte[] requestDigest, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -2,6 +2,7 @@ package pe.jesusamigo.backend_libreria.inventory.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,13 +10,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import pe.jesusamigo.backend_libreria.idempotency.IdempotencyService;
+import pe.jesusamigo.backend_libreria.inventory.dto.InventoryBatchRequestDTO;
 import pe.jesusamigo.backend_libreria.inventory.dto.InventoryRequestDTO;
+import pe.jesusamigo.backend_libreria.inventory.dto.StockAtResponseDTO;
+import pe.jesusamigo.backend_libreria.inventory.dto.StockJournalReceiptDTO;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementResponseDTO;
 import pe.jesusamigo.backend_libreria.inventory.service.InventoryAdjustmentService;
+import pe.jesusamigo.backend_libreria.inventory.service.StockMovementJournal;
+import pe.jesusamigo.backend_libreria.inventory.service.StockSnapshotService;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -24,24 +35,53 @@ import pe.jesusamigo.backend_libreria.inventory.service.InventoryAdjustmentServi
 public class InventoryAdjustmentController {
 
     private final InventoryAdjustmentService inventoryAdjustmentService;
+    private final IdempotencyService idempotencyService;
+    private final StockMovementJournal stockMovementJournal;
+    private final StockSnapshotService stockSnapshotService;
 
     @Operation(
             summary = "Recargar stock de un producto",
-            description = "Aumenta el stock disponible de un producto."
+            description = "Aumenta el stock disponible de un producto. "
+                    + "Si se envía la cabecera Idempotency-Key, un reintento con la misma clave devuelve el movimiento ya registrado."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Stock recargado exitosamente",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = StockMovementResponseDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos o producto no encontrado", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o producto no encontrado", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya fue usada con otros datos", content = @Content)
     })
     @PostMapping("/recharge")
     @PreAuthorize("hasAuthority('RECHARGE_STOCK')")
     public ResponseEntity<StockMovementResponseDTO> rechargeStock(
+            @Parameter(description = "Clave única para reintentos seguros", example = "pos-03-recarga-0042")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Datos de la recarga de inventario", required = true)
             @Valid @RequestBody InventoryRequestDTO request
     ) {
-        StockMovementResponseDTO result = inventoryAdjustmentService.rechargeStock(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        return idempotencyService.execute("recharge", idempotencyKey, request, () -> {
+            StockMovementResponseDTO result = inventoryAdjustmentService.rechargeStock(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        });
+    }
+
+    @Operation(
+            summary = "Recargar stock de forma diferida",
+            description = "Acepta la recarga en el diario de movimientos y responde de inmediato. "
+                    + "El movimiento y el nuevo stock se registran por lotes en pocos segundos; "
+                    + "pensado para la recepción de mercadería con lectores de código."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Recarga aceptada",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StockJournalReceiptDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o producto no encontrado", content = @Content)
+    })
+    @PostMapping("/recharge/journal")
+    @PreAuthorize("hasAuthority('RECHARGE_STOCK')")
+    public ResponseEntity<StockJournalReceiptDTO> rechargeStockDeferred(
+            @Parameter(description = "Datos de la recarga de inventario", required = true)
+            @Valid @RequestBody InventoryRequestDTO request
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(stockMovementJournal.append(request));
     }
 
     @Operation(
@@ -63,6 +103,46 @@ public class InventoryAdjustmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(result);
     }
 
+    @Operation(
+            summary = "Recargar stock de varios productos",
+            description = "Aplica todas las líneas de una recepción de mercadería en una sola transacción. "
+                    + "Si algún producto no existe no se registra ninguna línea."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock recargado exitosamente",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = StockMovementResponseDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o producto no encontrado", content = @Content)
+    })
+    @PostMapping("/recharge/batch")
+    @PreAuthorize("hasAuthority('RECHARGE_STOCK')")
+    public ResponseEntity<List<StockMovementResponseDTO>> rechargeStockBatch(
+            @Parameter(description = "Líneas de la recarga de inventario", required = true)
+            @Valid @RequestBody InventoryBatchRequestDTO request
+    ) {
+        List<StockMovementResponseDTO> result = inventoryAdjustmentService.rechargeStockBatch(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @Operation(
+            summary = "Dar de baja stock de varios productos",
+            description = "Aplica todas las líneas en una sola transacción. "
+                    + "Si algún producto no existe o no tiene stock suficiente no se registra ninguna línea."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock dado de baja exitosamente",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = StockMovementResponseDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, producto no encontrado o stock insuficiente", content = @Content)
+    })
+    @PostMapping("/decrease/batch")
+    @PreAuthorize("hasAuthority('DECREASE_STOCK')")
+    public ResponseEntity<List<StockMovementResponseDTO>> decreaseStockBatch(
+            @Parameter(description = "Líneas de la baja de inventario", required = true)
+            @Valid @RequestBody InventoryBatchRequestDTO request
+    ) {
+        List<StockMovementResponseDTO> result = inventoryAdjustmentService.decreaseStockBatch(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @Operation(
             summary = "Consultar stock actual de un producto",
             description = "Devuelve el stock disponible de un producto por su ID."
@@ -81,4 +161,25 @@ public class InventoryAdjustmentController {
         Integer stock = inventoryAdjustmentService.getStockByProductId(productId);
         return ResponseEntity.ok(stock);
     }
+
+    @Operation(
+            summary = "Consultar el stock de un producto en una fecha pasada",
+            description = "Reconstruye el stock desde el snapshot periódico más cercano a la fecha, "
+                    + "aplicando solo los movimientos y ventas entre ambas fechas."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock histórico consultado exitosamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StockAtResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Producto no encontrado o fecha futura", content = @Content)
+    })
+    @GetMapping("/product/{productId}/stock-at")
+    @PreAuthorize("hasAuthority('GET_PRODUCT_STOCK')")
+    public ResponseEntity<StockAtResponseDTO> getStockAt(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable Integer productId,
+            @Parameter(description = "Fecha y hora a consultar (ISO)", example = "2025-05-31T23:59:59", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+    ) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAt(productId, at));
+    }
 }
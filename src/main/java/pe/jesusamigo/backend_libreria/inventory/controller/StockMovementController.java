@@ -9,12 +9,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementCreateDTO;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementResponseDTO;
 import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
@@ -73,7 +74,7 @@ public class StockMovementController {
 
     @Operation(
             summary = "Listar movimientos de stock con filtros, paginación y orden",
-            description = "Filtra movimientos por producto, tipo (IN/OUT), rango de fechas. Permite paginar y ordenar por fecha."
+            description = "Filtra movimientos por producto, tipo (IN/OUT), rango de fechas. Permite paginar y ordenar por fecha. Con withCount=false no se calcula el total de registros."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de movimientos obtenida correctamente",
@@ -81,17 +82,45 @@ public class StockMovementController {
     })
     @GetMapping
     @PreAuthorize("hasAuthority('GET_STOCK_MOVEMENTS')")
-    public ResponseEntity<Page<StockMovementResponseDTO>> getStockMovements(
+    public ResponseEntity<Slice<StockMovementResponseDTO>> getStockMovements(
             @Parameter(description = "ID del producto") @RequestParam(required = false) Integer productId,
             @Parameter(description = "Tipo de movimiento (IN/OUT)") @RequestParam(required = false) StockMovement.MovementType movementType,
             @Parameter(description = "Fecha inicial (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
             @Parameter(description = "Fecha final (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
             @Parameter(description = "Ordenar por fecha (asc o desc)", example = "desc") @RequestParam(required = false, defaultValue = "desc") String sort,
             @Parameter(description = "Número de página (inicia en 0)", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Incluir el total de registros y páginas (false evita la consulta COUNT)", example = "true") @RequestParam(defaultValue = "true") boolean withCount
+    ) {
+        Slice<StockMovementResponseDTO> movimientos = stockMovementService.findAllFiltered(
+                productId, movementType, fromDate, toDate, sort, page, size, withCount
+        );
+        return ResponseEntity.ok(movimientos);
+    }
+
+    @Operation(
+            summary = "Listar movimientos de stock por cursor",
+            description = "Igual que el listado paginado, pero avanza con el cursor devuelto en cada página (orden por fecha e ID) "
+                    + "y no calcula el total de registros."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Movimientos obtenidos correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido", content = @Content)
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAuthority('GET_STOCK_MOVEMENTS')")
+    public ResponseEntity<CursorPage<StockMovementResponseDTO>> getStockMovementsByCursor(
+            @Parameter(description = "ID del producto") @RequestParam(required = false) Integer productId,
+            @Parameter(description = "Tipo de movimiento (IN/OUT)") @RequestParam(required = false) StockMovement.MovementType movementType,
+            @Parameter(description = "Fecha inicial (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+            @Parameter(description = "Fecha final (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+            @Parameter(description = "Ordenar por fecha (asc o desc)", example = "desc") @RequestParam(required = false, defaultValue = "desc") String sort,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)") @RequestParam(required = false) String cursor,
             @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size
     ) {
-        Page<StockMovementResponseDTO> movimientos = stockMovementService.findAllFiltered(
-                productId, movementType, fromDate, toDate, sort, page, size
+        CursorPage<StockMovementResponseDTO> movimientos = stockMovementService.findAllByCursor(
+                productId, movementType, fromDate, toDate, sort, cursor, size
         );
         return ResponseEntity.ok(movimientos);
     }
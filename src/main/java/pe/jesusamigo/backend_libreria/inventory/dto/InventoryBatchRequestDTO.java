@@ -0,0 +1,36 @@
+package pe.jesusamigo.backend_libreria.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para recargar o dar de baja varias líneas de inventario en una sola operación.
+ */
+@Schema(
+        name = "InventoryBatchRequestDTO",
+        description = "Líneas de una recarga o baja de inventario (por ejemplo, una guía de proveedor)"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryBatchRequestDTO {
+
+    @ArraySchema(
+            schema = @Schema(implementation = InventoryRequestDTO.class),
+            minItems = 1
+    )
+    @NotNull(message = "Debe enviar al menos una línea")
+    @Size(min = 1, max = 5000, message = "El lote debe contener entre 1 y 5000 líneas")
+    @Valid
+    private List<InventoryRequestDTO> items;
+}
@@ -0,0 +1,36 @@
+package pe.jesusamigo.backend_libreria.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock de un producto en una fecha pasada.
+ */
+@Schema(
+        name = "StockAtResponseDTO",
+        description = "Stock histórico de un producto reconstruido desde el snapshot más cercano"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAtResponseDTO {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Fecha y hora consultada", example = "2025-05-31T23:59:59")
+    private LocalDateTime at;
+
+    @Schema(description = "Stock en la fecha consultada", example = "42")
+    private Integer stock;
+
+    @Schema(description = "Fecha del snapshot usado como base (vacío si se partió del stock actual)",
+            example = "2025-06-01T02:00:00")
+    private LocalDateTime snapshotTakenAt;
+}
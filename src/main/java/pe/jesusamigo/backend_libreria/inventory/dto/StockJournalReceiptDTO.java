@@ -0,0 +1,36 @@
+package pe.jesusamigo.backend_libreria.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Confirmación de una recarga aceptada en el diario de movimientos (aún no aplicada).
+ */
+@Schema(
+        name = "StockJournalReceiptDTO",
+        description = "Recarga aceptada; el movimiento se registra en el próximo lote"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockJournalReceiptDTO {
+
+    @Schema(description = "Clave del movimiento en el diario (se guarda en el movimiento registrado)",
+            example = "5f1c2a9e-7b1d-4e52-9a43-0c8f3d2b6e11")
+    private String journalKey;
+
+    @Schema(description = "ID del producto", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Cantidad recargada", example = "10")
+    private Integer quantity;
+
+    @Schema(description = "Fecha y hora de aceptación (será la fecha del movimiento)", example = "2025-06-14T10:30:00")
+    private LocalDateTime acceptedAt;
+}
@@ -10,7 +10,9 @@ import pe.jesusamigo.backend_libreria.product.entity.Product;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = StockMovement.TABLE_NAME)
+@Table(name = StockMovement.TABLE_NAME, indexes = {
+        @Index(name = "idx_stock_movements_product_date", columnList = StockMovement.COLUMN_PRODUCT_ID + ", " + StockMovement.COLUMN_MOVEMENT_DATE)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,20 +21,25 @@ import java.time.LocalDateTime;
 public class StockMovement {
 
     public static final String TABLE_NAME = "stock_movements";
+    public static final String SEQUENCE_NAME = "stock_movements_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
     public static final String COLUMN_ID = "id";
     public static final String COLUMN_PRODUCT_ID = "product_id";
     public static final String COLUMN_TYPE = "type";
     public static final String COLUMN_QUANTITY = "quantity";
     public static final String COLUMN_MOVEMENT_DATE = "movement_date";
     public static final String COLUMN_REASON = "reason";
+    public static final String COLUMN_JOURNAL_KEY = "journal_key";
     public static final int REASON_MAX_LENGTH = 200;
+    public static final int JOURNAL_KEY_MAX_LENGTH = 36;
 
     public enum MovementType {
         IN, OUT
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = COLUMN_ID)
     private Integer id;
 
@@ -58,4 +65,9 @@ public class StockMovement {
     @Size(max = REASON_MAX_LENGTH)
     @Column(name = COLUMN_REASON, length = REASON_MAX_LENGTH)
     private String reason;
+
+    // Clave del diario de movimientos (solo en recargas diferidas); evita registrar dos veces la misma entrada
+    @Size(max = JOURNAL_KEY_MAX_LENGTH)
+    @Column(name = COLUMN_JOURNAL_KEY, length = JOURNAL_KEY_MAX_LENGTH, unique = true)
+    private String journalKey;
 }
@@ -0,0 +1,49 @@
+package pe.jesusamigo.backend_libreria.inventory.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import pe.jesusamigo.backend_libreria.product.entity.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock de un producto en un instante. Se toma periódicamente para reconstruir el stock
+ * histórico sin recorrer todos los movimientos.
+ */
+@Entity
+@Table(name = StockSnapshot.TABLE_NAME, indexes = {
+        @Index(name = "idx_stock_snapshots_product_taken", columnList = StockSnapshot.COLUMN_PRODUCT_ID + ", " + StockSnapshot.COLUMN_TAKEN_AT)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class StockSnapshot {
+
+    public static final String TABLE_NAME = "stock_snapshots";
+    public static final String COLUMN_ID = "id";
+    public static final String COLUMN_PRODUCT_ID = "product_id";
+    public static final String COLUMN_STOCK = "stock";
+    public static final String COLUMN_TAKEN_AT = "taken_at";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = COLUMN_ID)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = COLUMN_PRODUCT_ID, nullable = false)
+    private Product product;
+
+    // Stock efectivo: descuenta también las ventas reservadas aún no aplicadas a products.stock
+    @NotNull
+    @Column(name = COLUMN_STOCK, nullable = false)
+    private Integer stock;
+
+    @NotNull
+    @Column(name = COLUMN_TAKEN_AT, nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -2,12 +2,19 @@ package pe.jesusamigo.backend_libreria.inventory.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Integer>, JpaSpecificationExecutor<StockMovement> {
     List<StockMovement> findByProductId(Integer productId);
+
+    @Query("SELECT m.journalKey FROM StockMovement m WHERE m.journalKey IN :keys")
+    Set<String> findJournalKeysIn(@Param("keys") Collection<String> keys);
 }
@@ -0,0 +1,18 @@
+package pe.jesusamigo.backend_libreria.inventory.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pe.jesusamigo.backend_libreria.inventory.entity.StockSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Snapshot más reciente tomado hasta el instante indicado
+    Optional<StockSnapshot> findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Integer productId, LocalDateTime at);
+
+    // Primer snapshot posterior al instante indicado (para reconstruir hacia atrás)
+    Optional<StockSnapshot> findFirstByProductIdAndTakenAtGreaterThanOrderByTakenAtAsc(Integer productId, LocalDateTime at);
+}
@@ -2,6 +2,7 @@ package pe.jesusamigo.backend_libreria.inventory.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pe.jesusamigo.backend_libreria.inventory.dto.InventoryRequestDTO;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementCreateDTO;
@@ -10,6 +11,8 @@ import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement.MovementTyp
 import pe.jesusamigo.backend_libreria.product.entity.Product;
 import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -18,6 +21,8 @@ public class InventoryAdjustmentService {
     private final StockMovementService stockMovementService;
     private final ProductRepository productRepository;
 
+    // Sin transacción propia: StockMovementService.create abre una por intento y reintenta ante conflictos de versión
+    @Transactional(propagation = Propagation.SUPPORTS)
     public StockMovementResponseDTO rechargeStock(InventoryRequestDTO request) {
         validateProductExists(request.getProductId());
         validateQuantity(request.getQuantity());
@@ -30,6 +35,7 @@ public class InventoryAdjustmentService {
         return stockMovementService.create(dto);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public StockMovementResponseDTO decreaseStock(InventoryRequestDTO request) {
         validateProductExists(request.getProductId());
         validateQuantity(request.getQuantity());
@@ -48,6 +54,20 @@ public class InventoryAdjustmentService {
         return stockMovementService.create(dto);
     }
 
+    /**
+     * Recarga varias líneas en una sola transacción (todas o ninguna).
+     */
+    public List<StockMovementResponseDTO> rechargeStockBatch(List<InventoryRequestDTO> requests) {
+        return stockMovementService.createBatch(toMovements(requests, MovementType.IN));
+    }
+
+    /**
+     * Da de baja varias líneas en una sola transacción (todas o ninguna).
+     */
+    public List<StockMovementResponseDTO> decreaseStockBatch(List<InventoryRequestDTO> requests) {
+        return stockMovementService.createBatch(toMovements(requests, MovementType.OUT));
+    }
+
     @Transactional(readOnly = true)
     public Integer getStockByProductId(Integer productId) {
         validateProductExists(productId);
@@ -56,6 +76,17 @@ public class InventoryAdjustmentService {
                 .orElse(0);
     }
 
+    private List<StockMovementCreateDTO> toMovements(List<InventoryRequestDTO> requests, MovementType type) {
+        return requests.stream()
+                .map(request -> StockMovementCreateDTO.builder()
+                        .productId(request.getProductId())
+                        .type(type)
+                        .quantity(request.getQuantity())
+                        .reason(request.getReason())
+                        .build())
+                .toList();
+    }
+
     private void validateProductExists(Integer productId) {
         if (productId == null) {
             throw new IllegalArgumentException("El ID del producto es obligatorio.");
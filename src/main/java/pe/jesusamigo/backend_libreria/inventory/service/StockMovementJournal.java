@@ -0,0 +1,454 @@
+package pe.jesusamigo.backend_libreria.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import pe.jesusamigo.backend_libreria.inventory.dto.InventoryRequestDTO;
+import pe.jesusamigo.backend_libreria.inventory.dto.StockJournalReceiptDTO;
+import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
+import pe.jesusamigo.backend_libreria.inventory.repository.StockMovementRepository;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+import pe.jesusamigo.backend_libreria.product.service.CatalogVersion;
+import pe.jesusamigo.backend_libreria.product.service.StockReservationLedger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Diario de recargas de stock con escritura diferida.
+ * <p>
+ * Las recargas se aceptan en un búfer en memoria y se registran por lotes: en una sola
+ * transacción se insertan los movimientos (inserciones por lotes) y se suma el total neto por
+ * producto con un único UPDATE por producto. Un lote se escribe al llegar a
+ * {@code app.inventory.journal.batch-size} entradas o cada {@code flush-interval}.
+ * <p>
+ * Durabilidad: sin archivo de respaldo, lo aceptado y no escrito se pierde si el proceso cae.
+ * Con {@code wal.enabled=true} cada entrada se agrega a un archivo local antes de responder
+ * (con {@code wal.fsync=true} además se fuerza a disco) y se vuelve a cargar al arrancar; la
+ * clave de cada entrada se guarda en el movimiento, de modo que reprocesarla no la duplica.
+ * El archivo se divide en segmentos ({@code <wal.path>.000001}, ...) de hasta
+ * {@code wal.segment-size}; un segmento se elimina en cuanto todas sus entradas quedan
+ * registradas, de modo que el espacio y el tiempo de recuperación dependen solo de lo pendiente.
+ */
+@Component
+public class StockMovementJournal {
+    private static final Logger log = LoggerFactory.getLogger(StockMovementJournal.class);
+
+    private static final String SQL_INCREASE_STOCK =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ?";
+
+    /**
+     * Entrada del diario (también es el formato de cada línea del archivo de respaldo).
+     */
+    public record JournalEntry(String key, Integer productId, int quantity, String reason, LocalDateTime acceptedAt) {
+    }
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StockReservationLedger stockReservationLedger;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${app.inventory.journal.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.inventory.journal.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${app.inventory.journal.wal.fsync:true}")
+    private boolean walFsync;
+
+    @Value("${app.inventory.journal.wal.path:data/stock-journal.wal}")
+    private Path walPath;
+
+    @Value("${app.inventory.journal.wal.segment-size:16MB}")
+    private DataSize walSegmentSize;
+
+    // Búfer y contador de entradas aceptadas aún no registradas; protegidos por bufferLock
+    private final Object bufferLock = new Object();
+    private final Deque<JournalEntry> buffer = new ArrayDeque<>();
+    private int unflushed;
+
+    // Segmentos del archivo de respaldo: entradas pendientes por segmento y segmento de cada entrada
+    private final Map<Long, Integer> pendingBySegment = new HashMap<>();
+    private final Map<String, Long> segmentByKey = new HashMap<>();
+    private long currentSegment;
+    private long currentSegmentSize;
+    private FileChannel wal;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "stock-journal-flush"));
+
+    public StockMovementJournal(ProductRepository productRepository,
+                                StockMovementRepository stockMovementRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                StockReservationLedger stockReservationLedger,
+                                CatalogVersion catalogVersion) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.stockReservationLedger = stockReservationLedger;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Abre el archivo de respaldo y recupera las entradas que no llegaron a registrarse.
+     */
+    @PostConstruct
+    void openWal() throws IOException {
+        if (!walEnabled) {
+            return;
+        }
+        if (walPath.getParent() != null) {
+            Files.createDirectories(walPath.getParent());
+        }
+        List<Long> segments = existingSegments();
+        long lastSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        for (long segment : segments) {
+            List<JournalEntry> entries = readSegment(segment, segment == lastSegment);
+            for (JournalEntry entry : entries) {
+                buffer.addLast(entry);
+                segmentByKey.put(entry.key(), segment);
+            }
+            if (!entries.isEmpty()) {
+                pendingBySegment.put(segment, entries.size());
+            } else {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+        unflushed = buffer.size();
+        if (unflushed > 0) {
+            log.info("✔ {} recarga(s) pendientes recuperadas del diario {}", unflushed, walPath);
+        }
+        openSegment(lastSegment + 1);
+    }
+
+    /**
+     * Acepta una recarga de stock; el movimiento se registra en el próximo lote.
+     */
+    public StockJournalReceiptDTO append(InventoryRequestDTO request) {
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
+        }
+        if (request.getProductId() == null || !productRepository.existsById(request.getProductId())) {
+            throw new IllegalArgumentException("Producto no encontrado con ID: " + request.getProductId());
+        }
+        JournalEntry entry = new JournalEntry(UUID.randomUUID().toString(), request.getProductId(),
+                request.getQuantity(), request.getReason(), LocalDateTime.now());
+
+        boolean full;
+        synchronized (bufferLock) {
+            writeWal(entry);
+            buffer.addLast(entry);
+            unflushed++;
+            full = buffer.size() >= batchSize;
+        }
+        if (full) {
+            flushExecutor.execute(this::flush);
+        }
+        return StockJournalReceiptDTO.builder()
+                .journalKey(entry.key())
+                .productId(entry.productId())
+                .quantity(entry.quantity())
+                .acceptedAt(entry.acceptedAt())
+                .build();
+    }
+
+    /**
+     * Registra por lotes lo acumulado. Si la base no está disponible, las entradas vuelven al
+     * búfer y se reintentan en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.journal.flush-interval:PT2S}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return; // ya hay un lote en curso
+        }
+        try {
+            List<JournalEntry> batch;
+            while (!(batch = drain()).isEmpty()) {
+                int written = writeBatch(batch);
+                synchronized (bufferLock) {
+                    unflushed -= written;
+                    releaseSegments(batch.subList(0, written));
+                }
+                if (written < batch.size()) {
+                    break;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flushExecutor.shutdown();
+        flush();
+        synchronized (bufferLock) {
+            if (unflushed > 0) {
+                log.warn("{} recarga(s) del diario quedaron sin registrar{}", unflushed,
+                        walEnabled ? "; se recuperarán al reiniciar" : "");
+            }
+            if (wal != null) {
+                wal.close();
+            }
+        }
+    }
+
+    private List<JournalEntry> drain() {
+        synchronized (bufferLock) {
+            List<JournalEntry> batch = new ArrayList<>(Math.min(buffer.size(), batchSize));
+            while (batch.size() < batchSize && !buffer.isEmpty()) {
+                batch.add(buffer.pollFirst());
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Escribe un lote; si una entrada lo invalida (p. ej. el producto se eliminó) se escribe
+     * entrada por entrada y las inválidas se descartan.
+     *
+     * @return entradas procesadas; las restantes se devolvieron al búfer
+     */
+    private int writeBatch(List<JournalEntry> batch) {
+        try {
+            persist(batch);
+            return batch.size();
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Lote del diario rechazado, se registra entrada por entrada: {}", ex.getMostSpecificCause().getMessage());
+        } catch (DataAccessException ex) {
+            return requeue(batch, 0, ex);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            JournalEntry entry = batch.get(i);
+            try {
+                persist(List.of(entry));
+            } catch (DataIntegrityViolationException ex) {
+                log.error("Recarga descartada del diario {}: {}", entry, ex.getMostSpecificCause().getMessage());
+            } catch (DataAccessException ex) {
+                return requeue(batch, i, ex);
+            }
+        }
+        return batch.size();
+    }
+
+    private int requeue(List<JournalEntry> batch, int from, DataAccessException cause) {
+        log.warn("No se pudo registrar el diario de movimientos, se reintentará: {}", cause.getMessage());
+        synchronized (bufferLock) {
+            for (int i = batch.size() - 1; i >= from; i--) {
+                buffer.addFirst(batch.get(i));
+            }
+        }
+        return from;
+    }
+
+    private void persist(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Entradas ya registradas antes de una caída (recuperadas del archivo de respaldo)
+            Set<String> registered = stockMovementRepository.findJournalKeysIn(
+                    entries.stream().map(JournalEntry::key).toList());
+            List<JournalEntry> pending = entries.stream()
+                    .filter(entry -> !registered.contains(entry.key()))
+                    .toList();
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            // Fecha en que el stock cambia de verdad (no la de aceptación): un snapshot tomado entre
+            // ambas no incluye la recarga y el recálculo histórico debe contarla después de él
+            LocalDateTime appliedAt = LocalDateTime.now();
+
+            // Total neto por producto, en orden de ID para bloquear las filas siempre en el mismo orden
+            Map<Integer, Integer> deltas = new TreeMap<>();
+            pending.forEach(entry -> deltas.merge(entry.productId(), entry.quantity(), Integer::sum));
+            List<Map.Entry<Integer, Integer>> rows = new ArrayList<>(deltas.entrySet());
+            int[][] results = jdbcTemplate.batchUpdate(SQL_INCREASE_STOCK, rows, rows.size(), (ps, row) -> {
+                ps.setInt(1, row.getValue());
+                ps.setInt(2, row.getKey());
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                if (results[0][i] == 0) {
+                    throw new DataIntegrityViolationException("Producto no encontrado con ID: " + rows.get(i).getKey());
+                }
+            }
+
+            stockMovementRepository.saveAll(pending.stream()
+                    .map(entry -> StockMovement.builder()
+                            .product(productRepository.getReferenceById(entry.productId()))
+                            .type(StockMovement.MovementType.IN)
+                            .quantity(entry.quantity())
+                            .reason(entry.reason())
+                            .movementDate(appliedAt)
+                            .journalKey(entry.key())
+                            .build())
+                    .toList());
+
+            deltas.forEach(stockReservationLedger::adjust);
+            catalogVersion.changed();
+        });
+    }
+
+    private void writeWal(JournalEntry entry) {
+        if (wal == null) {
+            return;
+        }
+        try {
+            if (currentSegmentSize >= walSegmentSize.toBytes()) {
+                long previous = currentSegment;
+                wal.close();
+                openSegment(previous + 1);
+                if (!pendingBySegment.containsKey(previous)) {
+                    deleteSegment(previous);
+                }
+            }
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer bytes = ByteBuffer.wrap(line);
+            while (bytes.hasRemaining()) {
+                wal.write(bytes);
+            }
+            if (walFsync) {
+                wal.force(false);
+            }
+            currentSegmentSize += line.length;
+            segmentByKey.put(entry.key(), currentSegment);
+            pendingBySegment.merge(currentSegment, 1, Integer::sum);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir el diario de movimientos", ex);
+        }
+    }
+
+    // Descuenta las entradas procesadas de sus segmentos y elimina (o vacía, si es el actual) los ya completos
+    private void releaseSegments(List<JournalEntry> processed) {
+        for (JournalEntry entry : processed) {
+            Long segment = segmentByKey.remove(entry.key());
+            if (segment == null || pendingBySegment.merge(segment, -1, Integer::sum) > 0) {
+                continue;
+            }
+            pendingBySegment.remove(segment);
+            if (segment != currentSegment) {
+                deleteSegment(segment);
+            } else {
+                try {
+                    wal.truncate(0);
+                    if (walFsync) {
+                        wal.force(false);
+                    }
+                    currentSegmentSize = 0;
+                } catch (IOException ex) {
+                    log.warn("No se pudo reiniciar el diario {}: {}", segmentPath(segment), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee las entradas de un segmento. Una caída a mitad de {@link #writeWal} deja la última línea
+     * del último segmento incompleta: se descarta (truncando el archivo), ya que esa recarga no
+     * llegó a confirmarse al cliente. Una línea ilegible en cualquier otra posición es corrupción
+     * y detiene el arranque.
+     */
+    private List<JournalEntry> readSegment(long segment, boolean last) throws IOException {
+        Path path = segmentPath(segment);
+        byte[] content = Files.readAllBytes(path);
+        List<JournalEntry> entries = new ArrayList<>();
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            String line = new String(content, start, end - start, StandardCharsets.UTF_8);
+            boolean lastLine = end + 1 >= content.length;
+            if (!line.isBlank()) {
+                try {
+                    entries.add(objectMapper.readValue(line, JournalEntry.class));
+                } catch (JsonProcessingException ex) {
+                    if (!last || !lastLine) {
+                        throw new IOException("Diario de movimientos corrupto: " + path + " (byte " + start + ")", ex);
+                    }
+                    log.warn("Se descarta una escritura incompleta al final del diario {} (byte {})", path, start);
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(start);
+                        channel.force(false);
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        return entries;
+    }
+
+    private void openSegment(long segment) throws IOException {
+        wal = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSegment = segment;
+        currentSegmentSize = wal.size();
+    }
+
+    private void deleteSegment(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException ex) {
+            log.warn("No se pudo eliminar el segmento del diario {}: {}", segmentPath(segment), ex.getMessage());
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return walPath.resolveSibling(walPath.getFileName() + "." + String.format("%06d", segment));
+    }
+
+    // Números de los segmentos existentes, en orden
+    private List<Long> existingSegments() throws IOException {
+        String prefix = walPath.getFileName() + ".";
+        Path directory = walPath.toAbsolutePath().getParent();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.length() > prefix.length()
+                            && name.substring(prefix.length()).chars().allMatch(Character::isDigit))
+                    .map(name -> Long.parseLong(name.substring(prefix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
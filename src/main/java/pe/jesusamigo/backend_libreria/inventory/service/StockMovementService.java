@@ -1,13 +1,20 @@
 package pe.jesusamigo.backend_libreria.inventory.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
+import pe.jesusamigo.backend_libreria.common.pagination.CursorCodec;
+import pe.jesusamigo.backend_libreria.common.pagination.KeysetSpecification;
+import pe.jesusamigo.backend_libreria.common.pagination.SliceQueryExecutor;
+import pe.jesusamigo.backend_libreria.common.retry.OptimisticRetryExecutor;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementCreateDTO;
 import pe.jesusamigo.backend_libreria.inventory.dto.StockMovementResponseDTO;
 import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
@@ -16,11 +23,19 @@ import pe.jesusamigo.backend_libreria.inventory.repository.StockMovementReposito
 import pe.jesusamigo.backend_libreria.inventory.repository.StockMovementSpecification;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
 import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+import pe.jesusamigo.backend_libreria.product.service.CatalogVersion;
+import pe.jesusamigo.backend_libreria.product.service.StockReservationLedger;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,14 +43,29 @@ import java.util.stream.Collectors;
 @Transactional
 public class StockMovementService {
 
+    private static final String SQL_APPLY_STOCK_DELTA =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0";
+    private static final int STOCK_UPDATE_BATCH_SIZE = 500;
+
     private final StockMovementRepository stockMovementRepository;
     private final ProductRepository productRepository;
     private final StockMovementMapper stockMovementMapper;
+    private final SliceQueryExecutor sliceQueryExecutor;
+    private final CatalogVersion catalogVersion;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final StockReservationLedger stockReservationLedger;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Registra un nuevo movimiento de stock y actualiza el stock del producto.
+     * Si otra operación modifica el producto al mismo tiempo, se reintenta con el stock actualizado.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public StockMovementResponseDTO create(StockMovementCreateDTO dto) {
+        return optimisticRetry.execute(() -> doCreate(dto));
+    }
+
+    private StockMovementResponseDTO doCreate(StockMovementCreateDTO dto) {
         Product product = productRepository.findById(dto.getProductId())
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + dto.getProductId()));
 
@@ -56,16 +86,85 @@ public class StockMovementService {
             }
             default -> throw new IllegalArgumentException("Tipo de movimiento no soportado");
         }
+        stockReservationLedger.adjust(product.getId(), dto.getType() == StockMovement.MovementType.IN ? quantity : -quantity);
 
         productRepository.save(product);
         StockMovement saved = stockMovementRepository.save(movement);
+        catalogVersion.changed();
         return stockMovementMapper.toResponseDTO(saved);
     }
 
+    /**
+     * Registra varios movimientos en una sola transacción: los productos se validan con una
+     * consulta, el stock se ajusta con un UPDATE condicional por producto (total neto, en lotes
+     * JDBC) y los movimientos se insertan por lotes. Si algún producto no existe o no tiene
+     * stock suficiente no se registra ninguno.
+     */
+    public List<StockMovementResponseDTO> createBatch(List<StockMovementCreateDTO> dtos) {
+        Set<Integer> productIds = dtos.stream()
+                .map(StockMovementCreateDTO::getProductId)
+                .collect(Collectors.toSet());
+        Map<Integer, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Orden por ID: las filas se bloquean siempre en el mismo orden y se evitan deadlocks
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        for (StockMovementCreateDTO dto : dtos) {
+            if (!productsById.containsKey(dto.getProductId())) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + dto.getProductId());
+            }
+            if (dto.getQuantity() == null || dto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
+            }
+            int delta = switch (dto.getType()) {
+                case IN -> dto.getQuantity();
+                case OUT -> -dto.getQuantity();
+            };
+            deltas.merge(dto.getProductId(), delta, Integer::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        deltas.forEach(stockReservationLedger::adjust);
+
+        List<Map.Entry<Integer, Integer>> rows = new ArrayList<>(deltas.entrySet());
+        int[][] results = jdbcTemplate.batchUpdate(SQL_APPLY_STOCK_DELTA, rows, STOCK_UPDATE_BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setInt(1, row.getValue());
+                    ps.setInt(2, row.getKey());
+                    ps.setInt(3, row.getValue());
+                });
+        for (int i = 0; i < rows.size(); i++) {
+            if (results[i / STOCK_UPDATE_BATCH_SIZE][i % STOCK_UPDATE_BATCH_SIZE] == 0) {
+                throw new IllegalArgumentException("Stock insuficiente para el producto con ID: " + rows.get(i).getKey());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = dtos.stream()
+                .map(dto -> StockMovement.builder()
+                        .product(productsById.get(dto.getProductId()))
+                        .type(dto.getType())
+                        .quantity(dto.getQuantity())
+                        .reason(dto.getReason())
+                        .movementDate(now)
+                        .build())
+                .toList();
+        List<StockMovement> saved = stockMovementRepository.saveAll(movements);
+        catalogVersion.changed();
+        return saved.stream()
+                .map(stockMovementMapper::toResponseDTO)
+                .toList();
+    }
+
     /**
      * Actualiza un movimiento de stock existente y ajusta el stock del producto.
+     * Se reintenta ante conflictos de versión, igual que {@link #create}.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<StockMovementResponseDTO> update(Integer id, StockMovementCreateDTO dto) {
+        return optimisticRetry.execute(() -> doUpdate(id, dto));
+    }
+
+    private Optional<StockMovementResponseDTO> doUpdate(Integer id, StockMovementCreateDTO dto) {
         return stockMovementRepository.findById(id).map(existing -> {
             Product oldProduct = existing.getProduct();
             int oldQuantity = existing.getQuantity();
@@ -96,6 +195,12 @@ public class StockMovementService {
                 default -> throw new IllegalArgumentException("Tipo de movimiento no soportado");
             }
 
+            // Efecto neto por producto sobre la reserva en memoria (deshacer el anterior + aplicar el nuevo)
+            Map<Integer, Integer> deltas = new HashMap<>();
+            deltas.merge(oldProduct.getId(), oldType == StockMovement.MovementType.IN ? -oldQuantity : oldQuantity, Integer::sum);
+            deltas.merge(newProduct.getId(), dto.getType() == StockMovement.MovementType.IN ? newQuantity : -newQuantity, Integer::sum);
+            deltas.forEach(stockReservationLedger::adjust);
+
             existing.setProduct(newProduct);
             existing.setType(dto.getType());
             existing.setQuantity(dto.getQuantity());
@@ -104,19 +209,21 @@ public class StockMovementService {
 
             productRepository.save(newProduct);
             StockMovement updated = stockMovementRepository.save(existing);
+            catalogVersion.changed();
             return stockMovementMapper.toResponseDTO(updated);
         });
     }
 
     @Transactional(readOnly = true)
-    public Page<StockMovementResponseDTO> findAllFiltered(
+    public Slice<StockMovementResponseDTO> findAllFiltered(
             Integer productId,
             StockMovement.MovementType movementType,
             LocalDateTime fromDate,
             LocalDateTime toDate,
             String sort, // "asc" o "desc"
             int page,
-            int size
+            int size,
+            boolean withCount // false: sin COUNT, solo indica si hay página siguiente
     ) {
         Specification<StockMovement> spec = Specification
                 .where(StockMovementSpecification.hasProductId(productId))
@@ -129,8 +236,45 @@ public class StockMovementService {
 
         Pageable pageable = PageRequest.of(page, size, sortOrder);
 
-        return stockMovementRepository.findAll(spec, pageable)
-                .map(stockMovementMapper::toResponseDTO);
+        Slice<StockMovement> movements = withCount
+                ? stockMovementRepository.findAll(spec, pageable)
+                : sliceQueryExecutor.findSlice(StockMovement.class, spec, pageable, "product");
+        return movements.map(stockMovementMapper::toResponseDTO);
+    }
+
+    /**
+     * Movimientos paginados por cursor sobre (movementDate, id), sin consulta COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StockMovementResponseDTO> findAllByCursor(
+            Integer productId,
+            StockMovement.MovementType movementType,
+            LocalDateTime fromDate,
+            LocalDateTime toDate,
+            String sort, // "asc" o "desc"
+            String cursor,
+            int size
+    ) {
+        boolean descending = "desc".equalsIgnoreCase(sort);
+        String[] keys = CursorCodec.decode(cursor, 2);
+
+        Specification<StockMovement> spec = Specification
+                .where(StockMovementSpecification.hasProductId(productId))
+                .and(StockMovementSpecification.hasMovementType(movementType))
+                .and(StockMovementSpecification.dateAfterOrEqual(fromDate))
+                .and(StockMovementSpecification.dateBeforeOrEqual(toDate))
+                .and(keys == null ? null : KeysetSpecification.seekAfter(
+                        "movementDate", CursorCodec.toDateTime(keys[0]), Integer.valueOf(keys[1]), descending));
+
+        List<StockMovement> rows = stockMovementRepository.findBy(spec, query -> query
+                .sortBy(KeysetSpecification.sort("movementDate", descending))
+                .project("product")
+                .limit(size + 1)
+                .all());
+
+        return CursorPage.of(rows, size,
+                movement -> CursorCodec.encode(movement.getMovementDate(), movement.getId()),
+                stockMovementMapper::toResponseDTO);
     }
 
 
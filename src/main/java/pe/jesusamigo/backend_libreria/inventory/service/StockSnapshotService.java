@@ -0,0 +1,136 @@
+package pe.jesusamigo.backend_libreria.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.inventory.dto.StockAtResponseDTO;
+import pe.jesusamigo.backend_libreria.inventory.entity.StockSnapshot;
+import pe.jesusamigo.backend_libreria.inventory.repository.StockSnapshotRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots periódicos del stock y consulta del stock en una fecha pasada.
+ * <p>
+ * El stock histórico se calcula desde el snapshot más cercano a la fecha pedida, sumando (o
+ * restando, si el snapshot es posterior) solo los movimientos y ventas entre ambas fechas, por
+ * los índices {@code (product_id, movement_date)} y {@code (product_id, sale_date)}.
+ * Las ventas registradas con una fecha anterior a un snapshot ya tomado (terminales sin
+ * conexión) no quedan reflejadas en ese snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(StockSnapshotService.class);
+
+    // Ventas reservadas en memoria y aún no aplicadas a products.stock (ver StockReservationLedger)
+    private static final String PENDING_SALES = """
+            COALESCE((SELECT SUM(si.quantity) FROM sale_items si
+                      WHERE si.product_id = p.id AND si.stock_applied = false), 0)
+            """;
+
+    private static final String SQL_TAKE_SNAPSHOT =
+            "INSERT INTO stock_snapshots (product_id, stock, taken_at) SELECT p.id, p.stock - "
+                    + PENDING_SALES + ", ? FROM products p";
+
+    private static final String SQL_CURRENT_STOCK =
+            "SELECT p.stock - " + PENDING_SALES + " FROM products p WHERE p.id = ?";
+
+    // Variación neta del stock en (desde, hasta]: entradas - salidas - unidades vendidas
+    private static final String SQL_NET_CHANGE = """
+            SELECT COALESCE((SELECT SUM(CASE WHEN m.type = 'IN' THEN m.quantity ELSE -m.quantity END)
+                             FROM stock_movements m
+                             WHERE m.product_id = ? AND m.movement_date > ? AND m.movement_date <= ?), 0)
+                 - COALESCE((SELECT SUM(si.quantity)
+                             FROM sale_items si
+                             WHERE si.product_id = ? AND si.sale_date > ? AND si.sale_date <= ?), 0)
+            """;
+
+    // Ítems registrados antes de que sale_items tuviera la fecha de la venta
+    private static final String SQL_BACKFILL_ITEM_DATES = """
+            UPDATE sale_items si SET sale_date = s.sale_date
+            FROM sales s
+            WHERE s.id = si.sale_id AND si.sale_date IS NULL
+            """;
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Registra el stock actual de todos los productos.
+     *
+     * @return cantidad de productos registrados
+     */
+    @Scheduled(cron = "${app.inventory.snapshot.cron:0 0 2 * * *}")
+    public int takeSnapshot() {
+        int products = jdbcTemplate.update(SQL_TAKE_SNAPSHOT, LocalDateTime.now());
+        log.info("✔ Snapshot de stock registrado ({} productos)", products);
+        return products;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSaleItemDates() {
+        int updated = jdbcTemplate.update(SQL_BACKFILL_ITEM_DATES);
+        if (updated > 0) {
+            log.info("✔ Fecha de venta copiada a {} ítem(s) de venta", updated);
+        }
+    }
+
+    /**
+     * Stock de un producto en la fecha indicada.
+     */
+    @Transactional(readOnly = true)
+    public StockAtResponseDTO getStockAt(Integer productId, LocalDateTime at) {
+        LocalDateTime now = LocalDateTime.now();
+        if (at.isAfter(now)) {
+            throw new IllegalArgumentException("La fecha consultada no puede ser futura.");
+        }
+        List<Integer> current = jdbcTemplate.queryForList(SQL_CURRENT_STOCK, Integer.class, productId);
+        if (current.isEmpty()) {
+            throw new IllegalArgumentException("Producto no encontrado con ID: " + productId);
+        }
+
+        // Snapshot más cercano a la fecha pedida, anterior o posterior
+        Optional<StockSnapshot> nearest = Stream.of(
+                        stockSnapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(productId, at),
+                        stockSnapshotRepository.findFirstByProductIdAndTakenAtGreaterThanOrderByTakenAtAsc(productId, at))
+                .flatMap(Optional::stream)
+                .min(Comparator.comparing(snapshot -> Duration.between(snapshot.getTakenAt(), at).abs()));
+
+        int stock;
+        if (nearest.isPresent() && !nearest.get().getTakenAt().isAfter(at)) {
+            StockSnapshot snapshot = nearest.get();
+            stock = snapshot.getStock() + netChange(productId, snapshot.getTakenAt(), at);
+        } else if (nearest.isPresent()) {
+            StockSnapshot snapshot = nearest.get();
+            stock = snapshot.getStock() - netChange(productId, at, snapshot.getTakenAt());
+        } else {
+            stock = current.get(0) - netChange(productId, at, now);
+        }
+
+        return StockAtResponseDTO.builder()
+                .productId(productId)
+                .at(at)
+                .stock(stock)
+                .snapshotTakenAt(nearest.map(StockSnapshot::getTakenAt).orElse(null))
+                .build();
+    }
+
+    private int netChange(Integer productId, LocalDateTime from, LocalDateTime to) {
+        Integer change = jdbcTemplate.queryForObject(SQL_NET_CHANGE, Integer.class,
+                productId, from, to, productId, from, to);
+        return change != null ? change : 0;
+    }
+}
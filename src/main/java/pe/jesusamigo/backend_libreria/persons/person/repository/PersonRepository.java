@@ -1,12 +1,15 @@
 package pe.jesusamigo.backend_libreria.persons.person.repository;
 
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import pe.jesusamigo.backend_libreria.persons.person.entity.Person;
 
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
+    // Usuario, rol y permisos en la misma consulta (respuesta del inicio de sesión)
+    @EntityGraph(attributePaths = {"user", "user.role", "user.role.permissions"})
     Optional<Person> findByUserUsername(String username);
 
     Optional<Person> findByDni(String documentNumber);
@@ -1,9 +1,11 @@
 package pe.jesusamigo.backend_libreria.persons.person.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.exception.ResourceNotFoundException;
 import pe.jesusamigo.backend_libreria.persons.person.dto.PersonCreateDTO;
 import pe.jesusamigo.backend_libreria.persons.person.dto.PersonResponseDTO;
@@ -11,6 +13,7 @@ import pe.jesusamigo.backend_libreria.persons.person.entity.Person;
 import pe.jesusamigo.backend_libreria.persons.person.mapper.PersonMapper;
 import pe.jesusamigo.backend_libreria.persons.person.repository.PersonRepository;
 import pe.jesusamigo.backend_libreria.role.service.RoleService;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 import pe.jesusamigo.backend_libreria.user.entity.User;
 import pe.jesusamigo.backend_libreria.user.repository.UserRepository;
 
@@ -24,6 +27,7 @@ public class PersonService {
     private final RoleService roleService;
     private final PersonMapper personMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     /**
      * Crea una nueva persona y su usuario asociado.
@@ -65,6 +69,7 @@ public class PersonService {
         return personMapper.toDto(person);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public PersonResponseDTO update(Long id, PersonCreateDTO dto) {
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Persona no encontrada con ID: " + id));
@@ -96,6 +101,7 @@ public class PersonService {
         person.setUser(user);
 
         person = personRepository.save(person);
+        tokenVersionRegistry.refreshAfterCommit();
 
         return personMapper.toDto(person);
     }
@@ -103,6 +109,7 @@ public class PersonService {
     /**
      * Elimina una persona por ID (y su usuario asociado, por cascade).
      */
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void deleteById(Long id) {
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Persona no encontrada con ID: " + id));
@@ -112,5 +119,6 @@ public class PersonService {
 //            userRepository.delete(user);
 //        }
         personRepository.delete(person);
+        tokenVersionRegistry.refreshAfterCommit();
     }
 }
\ No newline at end of file
@@ -72,12 +72,9 @@ public class EditorialController {
     public ResponseEntity<EditorialResponseDTO> getEditorialById(
             @Parameter(description = "ID de la editorial a buscar", example = "1", required = true)
             @PathVariable Integer id) {
-        try {
-            EditorialResponseDTO dto = editorialService.findById(id);
-            return ResponseEntity.ok(dto);
-        } catch (EntityNotFoundException ex) {
-            return ResponseEntity.notFound().build();
-        }
+        return editorialService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Actualizar una editorial existente", description = "Actualiza los datos de una editorial existente.")
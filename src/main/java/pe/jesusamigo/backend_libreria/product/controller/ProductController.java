@@ -9,7 +9,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,11 +25,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
 import pe.jesusamigo.backend_libreria.product.dto.ProductCreateDTO;
+import pe.jesusamigo.backend_libreria.product.dto.ProductFacetsDTO;
 import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.ProductSuggestionDTO;
+import pe.jesusamigo.backend_libreria.product.service.CatalogVersion;
+import pe.jesusamigo.backend_libreria.product.service.ProductFacetService;
+import pe.jesusamigo.backend_libreria.product.service.ProductSearchService;
 import pe.jesusamigo.backend_libreria.product.service.ProductService;
+import pe.jesusamigo.backend_libreria.product.service.ProductSuggestionIndex;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -36,7 +47,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
+    @Value("${app.catalog.http-cache.max-age:PT1M}")
+    private Duration catalogMaxAge;
+
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+    private final ProductSuggestionIndex productSuggestionIndex;
 
     @Operation(summary = "Crear un nuevo producto", description = "Crea un nuevo producto/libro con sus relaciones asignadas.")
     @ApiResponses(value = {
@@ -59,14 +79,15 @@ public class ProductController {
 
     @Operation(
             summary = "Listar productos activos con filtros y paginación",
-            description = "Obtiene solo productos activos filtrando por categoría, autor, editorial, rango de precios, nombre/título, ordena por precio y soporta paginación."
+            description = "Obtiene solo productos activos filtrando por categoría, autor, editorial, rango de precios, nombre/título, ordena por precio y soporta paginación. Con withCount=false no se calcula el total de registros."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de productos activos obtenida correctamente",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDTO.class)))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde la ETag enviada (If-None-Match)", content = @Content)
     })
     @GetMapping("/public")
-    public ResponseEntity<Page<ProductResponseDTO>> getActiveProducts(
+    public ResponseEntity<Slice<ProductResponseDTO>> getActiveProducts(
             @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoryId,
             @Parameter(description = "ID de la editorial") @RequestParam(required = false) Integer editorialId,
             @Parameter(description = "ID del autor") @RequestParam(required = false) Integer authorId,
@@ -75,17 +96,113 @@ public class ProductController {
             @Parameter(description = "Fragmento del título o nombre") @RequestParam(required = false) String title,
             @Parameter(description = "Ordenar por precio (asc o desc)", example = "asc") @RequestParam(required = false, defaultValue = "asc") String sort,
             @Parameter(description = "Número de página (inicia en 0)", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Incluir el total de registros y páginas (false evita la consulta COUNT)", example = "true") @RequestParam(defaultValue = "true") boolean withCount,
+            WebRequest webRequest
+    ) {
+        // Si el catálogo no cambió, responde 304 sin consultar la base de datos
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Slice<ProductResponseDTO> products = productService.findAllActiveFiltered(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, page, size, withCount
+        );
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(publicCatalogCacheControl())
+                .body(products);
+    }
+
+    @Operation(
+            summary = "Conteos por filtro del catálogo público",
+            description = "Devuelve cuántos productos activos hay por categoría, editorial, autor y rango de precios "
+                    + "para los filtros actuales (acepta los mismos filtros que el listado público)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conteos obtenidos correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductFacetsDTO.class)))
+    })
+    @GetMapping("/public/facets")
+    public ResponseEntity<ProductFacetsDTO> getActiveProductFacets(
+            @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoryId,
+            @Parameter(description = "ID de la editorial") @RequestParam(required = false) Integer editorialId,
+            @Parameter(description = "ID del autor") @RequestParam(required = false) Integer authorId,
+            @Parameter(description = "Precio mínimo") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Fragmento del título o nombre") @RequestParam(required = false) String title
+    ) {
+        return ResponseEntity.ok(productFacetService.getActiveFacets(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title
+        ));
+    }
+
+    @Operation(
+            summary = "Buscar productos activos por texto",
+            description = "Busca en título, ISBN, código, autor y descripción. Los resultados se ordenan por relevancia, "
+                    + "admiten coincidencia por prefijo y toleran errores de tipeo en el título."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados de la búsqueda",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDTO.class)))
+    })
+    @GetMapping("/public/search")
+    public ResponseEntity<Slice<ProductResponseDTO>> searchActiveProducts(
+            @Parameter(description = "Texto a buscar", example = "quijote cervantes") @RequestParam("q") String query,
+            @Parameter(description = "Número de página (inicia en 0)", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size
     ) {
-        Page<ProductResponseDTO> products = productService.findAllActiveFiltered(
-                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, page, size
+        return ResponseEntity.ok(productSearchService.search(query, page, size));
+    }
+
+    @Operation(
+            summary = "Sugerencias de autocompletado",
+            description = "Devuelve productos activos cuyo título, autor, ISBN o código empiezan con el texto escrito. "
+                    + "Se responde desde un índice en memoria, sin consultar la base de datos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductSuggestionDTO.class)))
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "Texto escrito por el usuario", example = "cien a") @RequestParam("q") String query,
+            @Parameter(description = "Cantidad máxima de sugerencias", example = "10") @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(productSuggestionIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @Operation(
+            summary = "Listar productos activos por cursor",
+            description = "Igual que el listado público, pero avanza con el cursor devuelto en cada página (orden por precio e ID) "
+                    + "y no calcula el total de registros."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos activos obtenidos correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido", content = @Content)
+    })
+    @GetMapping("/public/cursor")
+    public ResponseEntity<CursorPage<ProductResponseDTO>> getActiveProductsByCursor(
+            @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoryId,
+            @Parameter(description = "ID de la editorial") @RequestParam(required = false) Integer editorialId,
+            @Parameter(description = "ID del autor") @RequestParam(required = false) Integer authorId,
+            @Parameter(description = "Precio mínimo") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Fragmento del título o nombre") @RequestParam(required = false) String title,
+            @Parameter(description = "Ordenar por precio (asc o desc)", example = "asc") @RequestParam(required = false, defaultValue = "asc") String sort,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<ProductResponseDTO> products = productService.findAllActiveByCursor(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, cursor, size
         );
         return ResponseEntity.ok(products);
     }
 
     @Operation(
             summary = "Listar todos los productos (activos e inactivos) con filtros y paginación",
-            description = "SOLO para usuarios autorizados. Obtiene todos los productos filtrando por categoría, autor, editorial, rango de precios, nombre/título, ordena por precio y soporta paginación."
+            description = "SOLO para usuarios autorizados. Obtiene todos los productos filtrando por categoría, autor, editorial, rango de precios, nombre/título, ordena por precio y soporta paginación. Con withCount=false no se calcula el total de registros."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de productos obtenida correctamente",
@@ -93,7 +210,7 @@ public class ProductController {
     })
     @GetMapping
     @PreAuthorize("hasAuthority('VIEW_ALL_PRODUCTS')")
-    public ResponseEntity<Page<ProductResponseDTO>> getAllProducts(
+    public ResponseEntity<Slice<ProductResponseDTO>> getAllProducts(
             @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoryId,
             @Parameter(description = "ID de la editorial") @RequestParam(required = false) Integer editorialId,
             @Parameter(description = "ID del autor") @RequestParam(required = false) Integer authorId,
@@ -102,10 +219,40 @@ public class ProductController {
             @Parameter(description = "Fragmento del título o nombre") @RequestParam(required = false) String title,
             @Parameter(description = "Ordenar por precio (asc o desc)", example = "asc") @RequestParam(required = false, defaultValue = "asc") String sort,
             @Parameter(description = "Número de página (inicia en 0)", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Incluir el total de registros y páginas (false evita la consulta COUNT)", example = "true") @RequestParam(defaultValue = "true") boolean withCount
+    ) {
+        Slice<ProductResponseDTO> products = productService.findAllFiltered(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, page, size, withCount
+        );
+        return ResponseEntity.ok(products);
+    }
+
+    @Operation(
+            summary = "Listar todos los productos por cursor",
+            description = "SOLO para usuarios autorizados. Igual que el listado completo, pero avanza con el cursor devuelto en cada página "
+                    + "(orden por precio e ID) y no calcula el total de registros."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos obtenidos correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido", content = @Content)
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAuthority('VIEW_ALL_PRODUCTS')")
+    public ResponseEntity<CursorPage<ProductResponseDTO>> getAllProductsByCursor(
+            @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoryId,
+            @Parameter(description = "ID de la editorial") @RequestParam(required = false) Integer editorialId,
+            @Parameter(description = "ID del autor") @RequestParam(required = false) Integer authorId,
+            @Parameter(description = "Precio mínimo") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Fragmento del título o nombre") @RequestParam(required = false) String title,
+            @Parameter(description = "Ordenar por precio (asc o desc)", example = "asc") @RequestParam(required = false, defaultValue = "asc") String sort,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)") @RequestParam(required = false) String cursor,
             @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size
     ) {
-        Page<ProductResponseDTO> products = productService.findAllFiltered(
-                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, page, size
+        CursorPage<ProductResponseDTO> products = productService.findAllByCursor(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title, sort, cursor, size
         );
         return ResponseEntity.ok(products);
     }
@@ -115,15 +262,26 @@ public class ProductController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde la ETag enviada (If-None-Match)", content = @Content),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content)
     })
     @GetMapping("/{id}")
 //    @PreAuthorize("hasAuthority('GET_PRODUCT')")
     public ResponseEntity<ProductResponseDTO> getProductById(
             @Parameter(description = "ID del producto a buscar", example = "1", required = true)
-            @PathVariable Integer id) {
+            @PathVariable Integer id,
+            WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         return productService.findById(id)
-                .map(ResponseEntity::ok)
+                // Sin max-age: el formulario de edición usa la versión del producto, una copia
+                // vieja provocaría un 409 al guardar; siempre se revalida con la ETag
+                .map(product -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .body(product))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -132,7 +290,8 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Producto actualizado correctamente",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDTO.class))),
             @ApiResponse(responseCode = "400", description = "Datos inválidos o entidades relacionadas no encontradas", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content),
+            @ApiResponse(responseCode = "409", description = "El producto fue modificado desde la versión enviada", content = @Content)
     })
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('UPDATE_PRODUCT')")
@@ -193,4 +352,8 @@ public class ProductController {
         }
     }
 
+    // Permite que navegadores y CDN reutilicen la respuesta y la revaliden con la ETag
+    private CacheControl publicCatalogCacheControl() {
+        return CacheControl.maxAge(catalogMaxAge).cachePublic();
+    }
 }
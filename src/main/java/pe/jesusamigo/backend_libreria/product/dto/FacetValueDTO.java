@@ -0,0 +1,30 @@
+package pe.jesusamigo.backend_libreria.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cantidad de productos para un valor de filtro (categoría, editorial o autor).
+ */
+@Schema(
+        name = "FacetValueDTO",
+        description = "Valor de filtro con la cantidad de productos que lo cumplen"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetValueDTO {
+
+    @Schema(description = "ID del valor (categoría, editorial o autor)", example = "3")
+    private Integer id;
+
+    @Schema(description = "Nombre a mostrar", example = "Novela")
+    private String label;
+
+    @Schema(description = "Cantidad de productos activos", example = "128")
+    private long count;
+}
@@ -0,0 +1,32 @@
+package pe.jesusamigo.backend_libreria.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Cantidad de productos dentro de un rango de precios.
+ */
+@Schema(
+        name = "PriceRangeFacetDTO",
+        description = "Rango de precios [min, max) con la cantidad de productos"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceRangeFacetDTO {
+
+    @Schema(description = "Precio mínimo (incluido)", example = "20.00")
+    private BigDecimal min;
+
+    @Schema(description = "Precio máximo (excluido); nulo en el último rango", example = "50.00")
+    private BigDecimal max;
+
+    @Schema(description = "Cantidad de productos activos", example = "42")
+    private long count;
+}
@@ -160,4 +160,10 @@ public class ProductCreateDTO {
             defaultValue = "true"
     )
     private Boolean active = true;
+
+    @Schema(
+            description = "Versión leída del producto; si se envía en una actualización y no coincide con la actual se responde 409",
+            example     = "3"
+    )
+    private Long version;
 }
@@ -0,0 +1,37 @@
+package pe.jesusamigo.backend_libreria.product.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Conteos por filtro para la barra lateral del catálogo. Cada grupo se calcula con los demás
+ * filtros aplicados, pero no con el propio, para que el usuario vea las alternativas.
+ */
+@Schema(
+        name = "ProductFacetsDTO",
+        description = "Cantidad de productos activos por categoría, editorial, autor y rango de precios"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+
+    @ArraySchema(schema = @Schema(implementation = FacetValueDTO.class))
+    private List<FacetValueDTO> categories;
+
+    @ArraySchema(schema = @Schema(implementation = FacetValueDTO.class))
+    private List<FacetValueDTO> editorials;
+
+    @ArraySchema(schema = @Schema(implementation = FacetValueDTO.class))
+    private List<FacetValueDTO> authors;
+
+    @ArraySchema(schema = @Schema(implementation = PriceRangeFacetDTO.class))
+    private List<PriceRangeFacetDTO> priceRanges;
+}
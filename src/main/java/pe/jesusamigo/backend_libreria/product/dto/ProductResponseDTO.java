@@ -99,4 +99,10 @@ public class ProductResponseDTO {
             example     = "true"
     )
     private Boolean active;
+
+    @Schema(
+            description = "Versión del producto (bloqueo optimista)",
+            example     = "3"
+    )
+    private Long version;
 }
@@ -0,0 +1,36 @@
+package pe.jesusamigo.backend_libreria.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sugerencia de autocompletado para el buscador de la tienda.
+ */
+@Schema(
+        name = "ProductSuggestionDTO",
+        description = "Producto sugerido mientras se escribe en el buscador"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSuggestionDTO {
+
+    @Schema(description = "ID único del producto", example = "42")
+    private Integer id;
+
+    @Schema(description = "Título del producto", example = "Cien años de soledad")
+    private String title;
+
+    @Schema(description = "Nombre del autor", example = "Gabriel García Márquez")
+    private String authorName;
+
+    @Schema(description = "ISBN del producto", example = "9780307474728")
+    private String isbn;
+
+    @Schema(description = "Código interno del producto", example = "LIB-0042")
+    private String code;
+}
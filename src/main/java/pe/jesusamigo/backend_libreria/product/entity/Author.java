@@ -14,9 +14,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = Author.TABLE_NAME)
+@BatchSize(size = 100)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
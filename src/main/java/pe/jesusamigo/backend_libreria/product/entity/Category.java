@@ -14,11 +14,13 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
 @Entity
 @Table(name = Category.TABLE_NAME)
+@BatchSize(size = 100)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
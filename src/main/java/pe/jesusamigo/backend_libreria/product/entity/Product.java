@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
@@ -22,6 +23,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -42,6 +44,7 @@ public class Product {
     public static final String COLUMN_ISBN = "isbn";
     public static final String COLUMN_CODE = "code";
     public static final String COLUMN_IMAGE_URL = "image_url";
+    public static final String COLUMN_VERSION = "version";
     public static final int TITLE_MAX_LENGTH = 120;
     public static final int ISBN_MAX_LENGTH = 20;
     public static final int CODE_MAX_LENGTH = 50;
@@ -112,4 +115,10 @@ public class Product {
     @Builder.Default
     @Column(name = "active", nullable = false)
     private Boolean active = true;
+
+    // Bloqueo optimista: cualquier escritura concurrente sobre el producto incrementa la versión
+    @Version
+    @ColumnDefault("0")
+    @Column(name = COLUMN_VERSION, nullable = false)
+    private Long version;
 }
@@ -0,0 +1,16 @@
+package pe.jesusamigo.backend_libreria.product.event;
+
+import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+
+/**
+ * Se publica cuando un producto se crea, modifica o elimina.
+ *
+ * @param productId ID del producto afectado
+ * @param product   estado final del producto, o {@code null} si fue eliminado
+ */
+public record ProductChangedEvent(Integer productId, ProductResponseDTO product) {
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
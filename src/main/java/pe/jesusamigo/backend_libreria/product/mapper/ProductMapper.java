@@ -2,12 +2,18 @@ package pe.jesusamigo.backend_libreria.product.mapper;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import pe.jesusamigo.backend_libreria.product.dto.AuthorResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.CategoryResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.EditorialResponseDTO;
 import pe.jesusamigo.backend_libreria.product.dto.ProductCreateDTO;
 import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
 import pe.jesusamigo.backend_libreria.product.entity.Author;
 import pe.jesusamigo.backend_libreria.product.entity.Category;
 import pe.jesusamigo.backend_libreria.product.entity.Editorial;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
+import pe.jesusamigo.backend_libreria.product.service.AuthorService;
+import pe.jesusamigo.backend_libreria.product.service.CategoryService;
+import pe.jesusamigo.backend_libreria.product.service.EditorialService;
 
 @Component
 @RequiredArgsConstructor
@@ -16,6 +22,9 @@ public class ProductMapper {
     private final AuthorMapper authorMapper;
     private final CategoryMapper categoryMapper;
     private final EditorialMapper editorialMapper;
+    private final AuthorService authorService;
+    private final CategoryService categoryService;
+    private final EditorialService editorialService;
 
     public Product toEntity(ProductCreateDTO dto) {
         return Product.builder()
@@ -42,14 +51,34 @@ public class ProductMapper {
                 .isbn(entity.getIsbn())
                 .code(entity.getCode())
                 .imageUrl(entity.getImageUrl())
-                .author(authorMapper.toResponseDTO(entity.getAuthor()))
-                .category(categoryMapper.toResponseDTO(entity.getCategory()))
-                .editorial(editorialMapper.toResponseDTO(entity.getEditorial()))
+                .author(toAuthorDTO(entity.getAuthor()))
+                .category(toCategoryDTO(entity.getCategory()))
+                .editorial(toEditorialDTO(entity.getEditorial()))
                 .price(entity.getPrice())
                 .stock(entity.getStock())
                 .description(entity.getDescription())
                 .publicationDate(entity.getPublicationDate())
                 .active(entity.getActive())
+                .version(entity.getVersion())
                 .build();
     }
+
+    // Las relaciones se resuelven desde la cache de datos de referencia usando solo el ID
+    // (getId() no inicializa el proxy lazy); el mapeo directo queda como respaldo. Con la cache
+    // fría, la primera consulta de cada tipo carga por @BatchSize los proxies de toda la página.
+
+    private AuthorResponseDTO toAuthorDTO(Author author) {
+        return authorService.findById(author.getId())
+                .orElseGet(() -> authorMapper.toResponseDTO(author));
+    }
+
+    private CategoryResponseDTO toCategoryDTO(Category category) {
+        return categoryService.findById(category.getId())
+                .orElseGet(() -> categoryMapper.toResponseDTO(category));
+    }
+
+    private EditorialResponseDTO toEditorialDTO(Editorial editorial) {
+        return editorialService.findById(editorial.getId())
+                .orElseGet(() -> editorialMapper.toResponseDTO(editorial));
+    }
 }
@@ -0,0 +1,92 @@
+package pe.jesusamigo.backend_libreria.product.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Conteos de productos activos por categoría, editorial, autor y rango de precios en una sola
+ * consulta. Cada grupo aplica todos los filtros salvo el de su propia dimensión.
+ */
+@Repository
+public class ProductFacetRepository {
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_EDITORIAL = "editorial";
+    public static final String FACET_AUTHOR = "author";
+    public static final String FACET_PRICE = "price";
+
+    private static final String CATEGORY_FILTER = "(CAST(:categoryId AS integer) IS NULL OR category_id = :categoryId)";
+    private static final String EDITORIAL_FILTER = "(CAST(:editorialId AS integer) IS NULL OR editorial_id = :editorialId)";
+    private static final String AUTHOR_FILTER = "(CAST(:authorId AS integer) IS NULL OR author_id = :authorId)";
+    private static final String PRICE_FILTER = "(CAST(:minPrice AS numeric) IS NULL OR price >= :minPrice)"
+            + " AND (CAST(:maxPrice AS numeric) IS NULL OR price <= :maxPrice)";
+
+    public record FacetCount(String facet, Integer key, long count) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final List<BigDecimal> priceBounds;
+    private final String facetsSql;
+
+    /**
+     * @param priceBounds límites inferiores de los rangos de precio, en orden ascendente
+     */
+    public ProductFacetRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                  @Value("${app.catalog.facets.price-bounds:0,20,50,100,200}") List<BigDecimal> priceBounds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceBounds = priceBounds.stream().sorted().distinct().toList();
+        // Los límites provienen de la configuración (BigDecimal), no de la solicitud
+        String bounds = this.priceBounds.stream().map(BigDecimal::toPlainString).collect(Collectors.joining(","));
+        this.facetsSql = """
+                WITH base AS (
+                    SELECT category_id, editorial_id, author_id, price
+                    FROM products
+                    WHERE active = true
+                      AND (CAST(:title AS varchar) IS NULL OR lower(title) LIKE :title)
+                )
+                SELECT '%1$s' AS facet, category_id AS facet_key, COUNT(*) AS total FROM base
+                WHERE %5$s AND %6$s AND %7$s GROUP BY category_id
+                UNION ALL
+                SELECT '%2$s', editorial_id, COUNT(*) FROM base
+                WHERE %8$s AND %6$s AND %7$s GROUP BY editorial_id
+                UNION ALL
+                SELECT '%3$s', author_id, COUNT(*) FROM base
+                WHERE %8$s AND %5$s AND %7$s GROUP BY author_id
+                UNION ALL
+                SELECT '%4$s', width_bucket(price, ARRAY[%9$s]::numeric[]), COUNT(*) FROM base
+                WHERE %8$s AND %5$s AND %6$s GROUP BY 2
+                """.formatted(FACET_CATEGORY, FACET_EDITORIAL, FACET_AUTHOR, FACET_PRICE,
+                EDITORIAL_FILTER, AUTHOR_FILTER, PRICE_FILTER, CATEGORY_FILTER, bounds);
+    }
+
+    public List<BigDecimal> getPriceBounds() {
+        return priceBounds;
+    }
+
+    /**
+     * Para la faceta de precio, la clave es el índice del rango (1 = primer límite); 0 indica
+     * un precio menor al primer límite.
+     */
+    public List<FacetCount> countFacets(Integer categoryId, Integer editorialId, Integer authorId,
+                                        BigDecimal minPrice, BigDecimal maxPrice, String titleFragment) {
+        String title = titleFragment == null || titleFragment.isBlank()
+                ? null
+                : "%" + titleFragment.trim().toLowerCase() + "%";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("categoryId", categoryId, Types.INTEGER)
+                .addValue("editorialId", editorialId, Types.INTEGER)
+                .addValue("authorId", authorId, Types.INTEGER)
+                .addValue("minPrice", minPrice, Types.NUMERIC)
+                .addValue("maxPrice", maxPrice, Types.NUMERIC)
+                .addValue("title", title, Types.VARCHAR);
+        return jdbcTemplate.query(facetsSql, params, (rs, rowNum) ->
+                new FacetCount(rs.getString(1), rs.getInt(2), rs.getLong(3)));
+    }
+}
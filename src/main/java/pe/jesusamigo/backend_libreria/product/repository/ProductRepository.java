@@ -2,10 +2,52 @@ package pe.jesusamigo.backend_libreria.product.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+
     boolean existsByTitle(String title);
+
+    /**
+     * Columnas usadas por el índice de filtros del catálogo (sin cargar las entidades).
+     */
+    interface ProductFilterRow {
+        Integer getId();
+        Integer getCategoryId();
+        Integer getEditorialId();
+        Integer getAuthorId();
+        BigDecimal getPrice();
+        Boolean getActive();
+    }
+
+    @Query("""
+        SELECT p.id AS id, p.category.id AS categoryId, p.editorial.id AS editorialId,
+               p.author.id AS authorId, p.price AS price, p.active AS active
+        FROM Product p
+    """)
+    List<ProductFilterRow> findAllFilterRows();
+
+    /**
+     * Columnas usadas por el índice de sugerencias (solo productos activos, sin cargar las entidades).
+     */
+    interface ProductSuggestionRow {
+        Integer getId();
+        String getTitle();
+        String getAuthorName();
+        String getIsbn();
+        String getCode();
+    }
+
+    @Query("""
+        SELECT p.id AS id, p.title AS title, a.name AS authorName, p.isbn AS isbn, p.code AS code
+        FROM Product p JOIN p.author a
+        WHERE p.active = true
+    """)
+    List<ProductSuggestionRow> findAllSuggestionRows();
 }
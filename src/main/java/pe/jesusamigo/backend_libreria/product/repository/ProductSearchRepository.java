@@ -0,0 +1,48 @@
+package pe.jesusamigo.backend_libreria.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Búsqueda de texto completo sobre productos (PostgreSQL).
+ * <p>
+ * Usa la columna {@code search_vector} (título, ISBN, código, autor y descripción), mantenida
+ * por trigger, y el índice trigram del título para tolerar errores de tipeo.
+ * Ver {@code ProductSearchInitializer}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+
+    private static final String SQL_SEARCH_ACTIVE_IDS = """
+            SELECT p.id
+            FROM products p, to_tsquery('simple', :tsQuery) AS q
+            WHERE p.active = true
+              AND (p.search_vector @@ q OR p.title % :term)
+            ORDER BY (lower(p.isbn) = :term OR lower(p.code) = :term) DESC,
+                     ts_rank(p.search_vector, q) + similarity(p.title, :term) DESC,
+                     p.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * IDs de productos activos que coinciden con la búsqueda, ordenados por relevancia.
+     *
+     * @param tsQuery consulta tsquery con prefijos (p. ej. {@code quijo:* & cervan:*})
+     * @param term    texto original normalizado, para similitud trigram y para priorizar el ISBN/código exacto
+     */
+    public List<Integer> searchActiveIds(String tsQuery, String term, int limit, long offset) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tsQuery", tsQuery)
+                .addValue("term", term)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        return jdbcTemplate.queryForList(SQL_SEARCH_ACTIVE_IDS, params, Integer.class);
+    }
+}
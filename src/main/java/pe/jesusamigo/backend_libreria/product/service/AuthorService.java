@@ -1,8 +1,12 @@
 package pe.jesusamigo.backend_libreria.product.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.product.dto.AuthorCreateDTO;
 import pe.jesusamigo.backend_libreria.product.dto.AuthorResponseDTO;
 import pe.jesusamigo.backend_libreria.product.entity.Author;
@@ -20,10 +24,12 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
     private final AuthorMapper authorMapper;
+    private final CatalogVersion catalogVersion;
 
     /**
      * Crea un nuevo autor.
      */
+    @CacheEvict(cacheNames = CacheConfig.AUTHOR_LIST, allEntries = true)
     public AuthorResponseDTO create(AuthorCreateDTO dto) {
         Author author = authorMapper.toEntity(dto);
         Author saved = authorRepository.save(author);
@@ -33,6 +39,7 @@ public class AuthorService {
     /**
      * Devuelve la lista de todos los autores.
      */
+    @Cacheable(cacheNames = CacheConfig.AUTHOR_LIST, key = "'all'")
     @Transactional(readOnly = true)
     public List<AuthorResponseDTO> findAll() {
         return authorRepository.findAll()
@@ -44,6 +51,7 @@ public class AuthorService {
     /**
      * Busca un autor por su ID.
      */
+    @Cacheable(cacheNames = CacheConfig.AUTHORS, key = "#id", unless = "#result == null")
     @Transactional(readOnly = true)
     public Optional<AuthorResponseDTO> findById(Integer id) {
         return authorRepository.findById(id)
@@ -53,12 +61,17 @@ public class AuthorService {
     /**
      * Actualiza un autor existente.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.AUTHORS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.AUTHOR_LIST, allEntries = true)
+    })
     public Optional<AuthorResponseDTO> update(Integer id, AuthorCreateDTO dto) {
         return authorRepository.findById(id).map(existing -> {
             existing.setName(dto.getName());
             existing.setBio(dto.getBio());
             existing.setActive(dto.getActive());
             Author updated = authorRepository.save(existing);
+            catalogVersion.changed(); // el nombre del autor forma parte de la respuesta de productos
             return authorMapper.toResponseDTO(updated);
         });
     }
@@ -66,6 +79,10 @@ public class AuthorService {
     /**
      * Elimina (físicamente) un autor por su ID.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.AUTHORS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.AUTHOR_LIST, allEntries = true)
+    })
     public boolean delete(Integer id) {
         if (authorRepository.existsById(id)) {
             authorRepository.deleteById(id);
@@ -0,0 +1,49 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de cambios del catálogo, usado como ETag de los endpoints públicos de productos.
+ * <p>
+ * Se incrementa tras el commit de cualquier cambio que altere la respuesta de un producto
+ * (datos, stock, autor, categoría o editorial). El instante de arranque forma parte de la
+ * ETag para que un reinicio nunca reutilice una versión anterior.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long bootEpoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public String etag() {
+        return "W/\"" + bootEpoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Registra un cambio del catálogo; dentro de una transacción se aplica al hacer commit.
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
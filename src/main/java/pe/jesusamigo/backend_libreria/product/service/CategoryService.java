@@ -1,8 +1,12 @@
 package pe.jesusamigo.backend_libreria.product.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.product.dto.CategoryCreateDTO;
 import pe.jesusamigo.backend_libreria.product.dto.CategoryResponseDTO;
 import pe.jesusamigo.backend_libreria.product.entity.Category;
@@ -20,10 +24,12 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CatalogVersion catalogVersion;
 
     /**
      * Crea una nueva categoría.
      */
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
     public CategoryResponseDTO create(CategoryCreateDTO dto) {
         Category category = categoryMapper.toEntity(dto);
         Category saved = categoryRepository.save(category);
@@ -33,6 +39,7 @@ public class CategoryService {
     /**
      * Devuelve la lista de todas las categorías.
      */
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'all'")
     @Transactional(readOnly = true)
     public List<CategoryResponseDTO> findAll() {
         return categoryRepository.findAll()
@@ -44,6 +51,7 @@ public class CategoryService {
     /**
      * Busca una categoría por su ID.
      */
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id", unless = "#result == null")
     @Transactional(readOnly = true)
     public Optional<CategoryResponseDTO> findById(Integer id) {
         return categoryRepository.findById(id)
@@ -53,12 +61,17 @@ public class CategoryService {
     /**
      * Actualiza una categoría existente.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    })
     public Optional<CategoryResponseDTO> update(Integer id, CategoryCreateDTO dto) {
         return categoryRepository.findById(id).map(existing -> {
             existing.setName(dto.getName());
             existing.setDescription(dto.getDescription());
             existing.setActive(dto.getActive());
             Category updated = categoryRepository.save(existing);
+            catalogVersion.changed(); // el nombre de la categoría forma parte de la respuesta de productos
             return categoryMapper.toResponseDTO(updated);
         });
     }
@@ -66,6 +79,10 @@ public class CategoryService {
     /**
      * Elimina (lógico o físico) una categoría por su ID.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    })
     public boolean delete(Integer id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
@@ -2,8 +2,12 @@ package pe.jesusamigo.backend_libreria.product.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.product.dto.EditorialCreateDTO;
 import pe.jesusamigo.backend_libreria.product.dto.EditorialResponseDTO;
 import pe.jesusamigo.backend_libreria.product.entity.Editorial;
@@ -11,6 +15,7 @@ import pe.jesusamigo.backend_libreria.product.mapper.EditorialMapper;
 import pe.jesusamigo.backend_libreria.product.repository.EditorialRepository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +27,7 @@ public class EditorialService {
 
     private final EditorialRepository repository;
     private final EditorialMapper mapper;
+    private final CatalogVersion catalogVersion;
 
     /**
      * Crea una nueva Editorial.
@@ -30,6 +36,7 @@ public class EditorialService {
      * @return DTO con los datos de la Editorial creada
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EDITORIAL_LIST, allEntries = true)
     public EditorialResponseDTO create(EditorialCreateDTO dto) {
         Editorial entity = mapper.toEntity(dto);
         Editorial saved = repository.save(entity);
@@ -42,6 +49,7 @@ public class EditorialService {
      * @return lista de DTOs de Editorial
      */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.EDITORIAL_LIST, key = "'all'")
     public List<EditorialResponseDTO> findAll() {
         return repository.findAll().stream()
                 .map(mapper::toResponseDTO)
@@ -52,16 +60,13 @@ public class EditorialService {
      * Busca una Editorial por su ID.
      *
      * @param id identificador de la Editorial
-     * @return DTO de la Editorial encontrada
-     * @throws EntityNotFoundException si no existe la Editorial
+     * @return DTO de la Editorial encontrada, o vacío si no existe
      */
     @Transactional(readOnly = true)
-    public EditorialResponseDTO findById(Integer id) {
-        Editorial entity = repository.findById(id)
-                .orElseThrow(() ->
-                        new EntityNotFoundException("Editorial no encontrada con id: " + id)
-                );
-        return mapper.toResponseDTO(entity);
+    @Cacheable(cacheNames = CacheConfig.EDITORIALS, key = "#id", unless = "#result == null")
+    public Optional<EditorialResponseDTO> findById(Integer id) {
+        return repository.findById(id)
+                .map(mapper::toResponseDTO);
     }
 
     /**
@@ -73,6 +78,10 @@ public class EditorialService {
      * @throws EntityNotFoundException si no existe la Editorial
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EDITORIALS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.EDITORIAL_LIST, allEntries = true)
+    })
     public EditorialResponseDTO update(Integer id, EditorialCreateDTO dto) {
         Editorial entity = repository.findById(id)
                 .orElseThrow(() ->
@@ -81,6 +90,7 @@ public class EditorialService {
         entity.setName(dto.getName());
         entity.setActive(dto.getActive());
         Editorial updated = repository.save(entity);
+        catalogVersion.changed(); // el nombre de la editorial forma parte de la respuesta de productos
         return mapper.toResponseDTO(updated);
     }
 
@@ -91,6 +101,10 @@ public class EditorialService {
      * @throws EntityNotFoundException si no existe la Editorial
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EDITORIALS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.EDITORIAL_LIST, allEntries = true)
+    })
     public void delete(Integer id) {
         Editorial entity = repository.findById(id)
                 .orElseThrow(() ->
@@ -0,0 +1,100 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
+import pe.jesusamigo.backend_libreria.product.dto.AuthorResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.CategoryResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.EditorialResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.FacetValueDTO;
+import pe.jesusamigo.backend_libreria.product.dto.PriceRangeFacetDTO;
+import pe.jesusamigo.backend_libreria.product.dto.ProductFacetsDTO;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+import pe.jesusamigo.backend_libreria.product.repository.ProductFacetRepository;
+import pe.jesusamigo.backend_libreria.product.repository.ProductFacetRepository.FacetCount;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+
+    private final ProductFacetRepository productFacetRepository;
+    private final AuthorService authorService;
+    private final CategoryService categoryService;
+    private final EditorialService editorialService;
+
+    /**
+     * Conteos por filtro de los productos activos para el conjunto de filtros actual.
+     * El resultado se guarda brevemente en cache para no repetir la consulta en cada página.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_FACETS,
+            key = "{#categoryId, #editorialId, #authorId, #minPrice, #maxPrice, #title}")
+    @Transactional(readOnly = true)
+    public ProductFacetsDTO getActiveFacets(Integer categoryId, Integer editorialId, Integer authorId,
+                                            BigDecimal minPrice, BigDecimal maxPrice, String title) {
+        List<FacetCount> counts = productFacetRepository.countFacets(
+                categoryId, editorialId, authorId, minPrice, maxPrice, title);
+
+        Map<Integer, String> categoryNames = categoryService.findAll().stream()
+                .collect(Collectors.toMap(CategoryResponseDTO::getId, CategoryResponseDTO::getName));
+        Map<Integer, String> editorialNames = editorialService.findAll().stream()
+                .collect(Collectors.toMap(EditorialResponseDTO::getId, EditorialResponseDTO::getName));
+        Map<Integer, String> authorNames = authorService.findAll().stream()
+                .collect(Collectors.toMap(AuthorResponseDTO::getId, AuthorResponseDTO::getName));
+
+        return ProductFacetsDTO.builder()
+                .categories(toValues(counts, ProductFacetRepository.FACET_CATEGORY, categoryNames::get))
+                .editorials(toValues(counts, ProductFacetRepository.FACET_EDITORIAL, editorialNames::get))
+                .authors(toValues(counts, ProductFacetRepository.FACET_AUTHOR, authorNames::get))
+                .priceRanges(toPriceRanges(counts))
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_FACETS, allEntries = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Solo invalida la cache de conteos
+    }
+
+    private List<FacetValueDTO> toValues(List<FacetCount> counts, String facet, Function<Integer, String> labels) {
+        return counts.stream()
+                .filter(count -> facet.equals(count.facet()))
+                .map(count -> FacetValueDTO.builder()
+                        .id(count.key())
+                        .label(labels.apply(count.key()))
+                        .count(count.count())
+                        .build())
+                .sorted(Comparator.comparingLong(FacetValueDTO::getCount).reversed()
+                        .thenComparing(FacetValueDTO::getId))
+                .toList();
+    }
+
+    private List<PriceRangeFacetDTO> toPriceRanges(List<FacetCount> counts) {
+        List<BigDecimal> bounds = productFacetRepository.getPriceBounds();
+        Map<Integer, Long> countsByBucket = counts.stream()
+                .filter(count -> ProductFacetRepository.FACET_PRICE.equals(count.facet()))
+                .collect(Collectors.toMap(FacetCount::key, FacetCount::count));
+
+        List<PriceRangeFacetDTO> ranges = new ArrayList<>(bounds.size());
+        for (int i = 0; i < bounds.size(); i++) {
+            ranges.add(PriceRangeFacetDTO.builder()
+                    .min(bounds.get(i))
+                    .max(i + 1 < bounds.size() ? bounds.get(i + 1) : null)
+                    .count(countsByBucket.getOrDefault(i + 1, 0L))
+                    .build());
+        }
+        return ranges;
+    }
+}
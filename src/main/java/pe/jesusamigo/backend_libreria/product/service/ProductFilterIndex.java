@@ -0,0 +1,241 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria (opcional) para los filtros del catálogo.
+ * <p>
+ * Mantiene un bitmap de IDs por categoría, editorial, autor y estado activo, y los productos
+ * ordenados por (precio, id). Una consulta intersecta los bitmaps y recorre el orden por precio
+ * para obtener solo los IDs de la página pedida y el total, sin consultar la base de datos.
+ * Se habilita con {@code app.catalog.filter-index.enabled=true}.
+ */
+@Component
+public class ProductFilterIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductFilterIndex.class);
+
+    private static final Comparator<PriceKey> PRICE_ORDER =
+            Comparator.comparing(PriceKey::price).thenComparingInt(PriceKey::id);
+
+    /**
+     * IDs de la página solicitada (en orden) y total de productos que cumplen los filtros.
+     */
+    public record Result(List<Integer> ids, long total) {
+    }
+
+    private record PriceKey(BigDecimal price, int id) {
+    }
+
+    private record Entry(Integer categoryId, Integer editorialId, Integer authorId, boolean active, PriceKey priceKey) {
+    }
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entriesById = new HashMap<>();
+    private final Map<Integer, BitSet> byCategory = new HashMap<>();
+    private final Map<Integer, BitSet> byEditorial = new HashMap<>();
+    private final Map<Integer, BitSet> byAuthor = new HashMap<>();
+    private final BitSet active = new BitSet();
+    private final BitSet all = new BitSet();
+    private final NavigableSet<PriceKey> byPrice = new TreeSet<>(PRICE_ORDER);
+    // Cambios confirmados antes de terminar la carga; se aplican sobre ella (protegido por el lock)
+    private final List<ProductChangedEvent> pendingEvents = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ProductFilterIndex(ProductRepository productRepository,
+                              @Value("${app.catalog.filter-index.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<ProductRepository.ProductFilterRow> rows = productRepository.findAllFilterRows();
+        lock.writeLock().lock();
+        try {
+            entriesById.clear();
+            byCategory.clear();
+            byEditorial.clear();
+            byAuthor.clear();
+            active.clear();
+            all.clear();
+            byPrice.clear();
+            for (ProductRepository.ProductFilterRow row : rows) {
+                add(row.getId(), new Entry(row.getCategoryId(), row.getEditorialId(), row.getAuthorId(),
+                        Boolean.TRUE.equals(row.getActive()), new PriceKey(row.getPrice(), row.getId())));
+            }
+            // La consulta pudo no ver cambios confirmados mientras se ejecutaba
+            pendingEvents.forEach(this::apply);
+            pendingEvents.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("✔ Índice de filtros del catálogo cargado con {} productos", rows.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(event);
+            } else {
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        remove(event.productId());
+        if (!event.isDeleted()) {
+            ProductResponseDTO product = event.product();
+            add(product.getId(), new Entry(
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    product.getEditorial() != null ? product.getEditorial().getId() : null,
+                    product.getAuthor() != null ? product.getAuthor().getId() : null,
+                    Boolean.TRUE.equals(product.getActive()),
+                    new PriceKey(product.getPrice(), product.getId())));
+        }
+    }
+
+    /**
+     * @param onlyActive {@code true} para el catálogo público, {@code null} para todos los productos
+     */
+    public Result query(Integer categoryId, Integer editorialId, Integer authorId, Boolean onlyActive,
+                        BigDecimal minPrice, BigDecimal maxPrice, boolean descending, long offset, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) (Boolean.TRUE.equals(onlyActive) ? active : all).clone();
+            intersect(candidates, byCategory, categoryId);
+            intersect(candidates, byEditorial, editorialId);
+            intersect(candidates, byAuthor, authorId);
+
+            NavigableSet<PriceKey> range = priceRange(minPrice, maxPrice);
+            Iterator<PriceKey> iterator = descending ? range.descendingIterator() : range.iterator();
+
+            List<Integer> ids = new ArrayList<>(size);
+            long total = 0;
+            while (iterator.hasNext()) {
+                int id = iterator.next().id();
+                if (candidates.get(id)) {
+                    if (total >= offset && ids.size() < size) {
+                        ids.add(id);
+                    }
+                    total++;
+                }
+            }
+            return new Result(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableSet<PriceKey> priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        NavigableSet<PriceKey> range = byPrice;
+        if (minPrice != null) {
+            range = range.tailSet(new PriceKey(minPrice, Integer.MIN_VALUE), true);
+        }
+        if (maxPrice != null) {
+            range = range.headSet(new PriceKey(maxPrice, Integer.MAX_VALUE), true);
+        }
+        return range;
+    }
+
+    private static void intersect(BitSet candidates, Map<Integer, BitSet> index, Integer key) {
+        if (key == null) {
+            return;
+        }
+        BitSet ids = index.get(key);
+        if (ids == null) {
+            candidates.clear();
+        } else {
+            candidates.and(ids);
+        }
+    }
+
+    private void add(int id, Entry entry) {
+        entriesById.put(id, entry);
+        all.set(id);
+        if (entry.active()) {
+            active.set(id);
+        }
+        setBit(byCategory, entry.categoryId(), id);
+        setBit(byEditorial, entry.editorialId(), id);
+        setBit(byAuthor, entry.authorId(), id);
+        if (entry.priceKey().price() != null) {
+            byPrice.add(entry.priceKey());
+        }
+    }
+
+    private void remove(int id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.clear(id);
+        active.clear(id);
+        clearBit(byCategory, entry.categoryId(), id);
+        clearBit(byEditorial, entry.editorialId(), id);
+        clearBit(byAuthor, entry.authorId(), id);
+        if (entry.priceKey().price() != null) {
+            byPrice.remove(entry.priceKey());
+        }
+    }
+
+    private static void setBit(Map<Integer, BitSet> index, Integer key, int id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new BitSet()).set(id);
+        }
+    }
+
+    private static void clearBit(Map<Integer, BitSet> index, Integer key, int id) {
+        if (key == null) {
+            return;
+        }
+        BitSet ids = index.get(key);
+        if (ids != null) {
+            ids.clear(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.common.pagination.SliceQueryExecutor;
+import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+import pe.jesusamigo.backend_libreria.product.entity.Product;
+import pe.jesusamigo.backend_libreria.product.mapper.ProductMapper;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+import pe.jesusamigo.backend_libreria.product.repository.ProductSearchRepository;
+import pe.jesusamigo.backend_libreria.product.repository.ProductSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de productos activos por texto libre (título, ISBN, código, autor y descripción),
+ * ordenada por relevancia, con coincidencia por prefijo y tolerancia a errores de tipeo.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductSearchService {
+
+    private static final int MAX_TERMS = 8;
+
+    private final ProductSearchRepository productSearchRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final SliceQueryExecutor sliceQueryExecutor;
+
+    private volatile boolean fullTextEnabled;
+
+    /**
+     * Se invoca cuando la columna e índices de búsqueda están listos (ver ProductSearchInitializer).
+     */
+    public void enableFullTextSearch() {
+        this.fullTextEnabled = true;
+    }
+
+    public Slice<ProductResponseDTO> search(String text, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        String term = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        if (!fullTextEnabled) {
+            // Sin índices de texto completo: se mantiene el filtro LIKE por título
+            Specification<Product> spec = Specification
+                    .where(ProductSpecification.titleContains(term))
+                    .and(ProductSpecification.isActive(true));
+            return sliceQueryExecutor.findSlice(Product.class, spec, pageable.withSort(Sort.by("title", "id")))
+                    .map(productMapper::toResponseDTO);
+        }
+
+        String tsQuery = toPrefixQuery(term);
+        if (tsQuery.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        List<Integer> ids = productSearchRepository.searchActiveIds(tsQuery, term, size + 1, pageable.getOffset());
+        boolean hasNext = ids.size() > size;
+        List<Integer> pageIds = hasNext ? ids.subList(0, size) : ids;
+
+        // Se respeta el orden de relevancia devuelto por la búsqueda
+        Map<Integer, Product> productsById = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDTO> content = new ArrayList<>(pageIds.size());
+        for (Integer id : pageIds) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                content.add(productMapper.toResponseDTO(product));
+            }
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Convierte el texto en una tsquery con prefijo por término ("el quijo" → "el:* & quijo:*").
+     * Solo se conservan letras y dígitos, por lo que la entrada del usuario no puede alterar la sintaxis.
+     */
+    private String toPrefixQuery(String term) {
+        List<String> terms = new ArrayList<>();
+        for (String token : term.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(token + ":*");
+            }
+        }
+        return String.join(" & ", terms);
+    }
+}
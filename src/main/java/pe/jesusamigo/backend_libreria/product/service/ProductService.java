@@ -1,19 +1,27 @@
 package pe.jesusamigo.backend_libreria.product.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
+import pe.jesusamigo.backend_libreria.common.pagination.CursorCodec;
+import pe.jesusamigo.backend_libreria.common.pagination.KeysetSpecification;
+import pe.jesusamigo.backend_libreria.common.pagination.SliceQueryExecutor;
 import pe.jesusamigo.backend_libreria.product.dto.ProductCreateDTO;
 import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
 import pe.jesusamigo.backend_libreria.product.entity.Author;
 import pe.jesusamigo.backend_libreria.product.entity.Category;
 import pe.jesusamigo.backend_libreria.product.entity.Editorial;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
 import pe.jesusamigo.backend_libreria.product.mapper.ProductMapper;
 import pe.jesusamigo.backend_libreria.product.repository.AuthorRepository;
 import pe.jesusamigo.backend_libreria.product.repository.CategoryRepository;
@@ -23,7 +31,10 @@ import pe.jesusamigo.backend_libreria.product.repository.ProductSpecification;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +47,10 @@ public class ProductService {
     private final CategoryRepository categoryRepository;
     private final EditorialRepository editorialRepository;
     private final ProductMapper productMapper;
+    private final SliceQueryExecutor sliceQueryExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductFilterIndex productFilterIndex;
+    private final StockReservationLedger stockReservationLedger;
 
     /**
      * Crea un nuevo producto.
@@ -57,7 +72,7 @@ public class ProductService {
         product.setEditorial(editorial);
 
         Product saved = productRepository.save(product);
-        return productMapper.toResponseDTO(saved);
+        return publishChanged(productMapper.toResponseDTO(saved));
     }
 
     /**
@@ -72,7 +87,7 @@ public class ProductService {
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> findAllActiveFiltered(
+    public Slice<ProductResponseDTO> findAllActiveFiltered(
             Integer categoryId,
             Integer editorialId,
             Integer authorId,
@@ -81,8 +96,13 @@ public class ProductService {
             String title,
             String sort,
             int page,
-            int size
+            int size,
+            boolean withCount // false: sin COUNT, solo indica si hay página siguiente
     ) {
+        if (productFilterIndex.isReady() && (title == null || title.isBlank())) {
+            return findByFilterIndex(categoryId, editorialId, authorId, true, minPrice, maxPrice, sort, page, size);
+        }
+
         Specification<Product> spec = Specification
                 .where(ProductSpecification.hasCategory(categoryId))
                 .and(ProductSpecification.hasEditorial(editorialId))
@@ -96,13 +116,15 @@ public class ProductService {
 
         Pageable pageable = PageRequest.of(page, size, sortOrder);
 
-        return productRepository.findAll(spec, pageable)
-                .map(productMapper::toResponseDTO);
+        Slice<Product> products = withCount
+                ? productRepository.findAll(spec, pageable)
+                : sliceQueryExecutor.findSlice(Product.class, spec, pageable);
+        return products.map(productMapper::toResponseDTO);
     }
 
 
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> findAllFiltered(
+    public Slice<ProductResponseDTO> findAllFiltered(
             Integer categoryId,
             Integer editorialId,
             Integer authorId,
@@ -111,8 +133,13 @@ public class ProductService {
             String title,
             String sort, // "asc" o "desc"
             int page,
-            int size
+            int size,
+            boolean withCount // false: sin COUNT, solo indica si hay página siguiente
     ) {
+        if (productFilterIndex.isReady() && (title == null || title.isBlank())) {
+            return findByFilterIndex(categoryId, editorialId, authorId, null, minPrice, maxPrice, sort, page, size);
+        }
+
         Specification<Product> spec = Specification
                 .where(ProductSpecification.hasCategory(categoryId))
                 .and(ProductSpecification.hasEditorial(editorialId))
@@ -125,8 +152,101 @@ public class ProductService {
 
         Pageable pageable = PageRequest.of(page, size, sortOrder);
 
-        return productRepository.findAll(spec, pageable)
-                .map(productMapper::toResponseDTO);
+        Slice<Product> products = withCount
+                ? productRepository.findAll(spec, pageable)
+                : sliceQueryExecutor.findSlice(Product.class, spec, pageable);
+        return products.map(productMapper::toResponseDTO);
+    }
+
+    /**
+     * Resuelve los filtros con el índice en memoria y carga solo los productos de la página.
+     * El total sale del propio índice, sin consulta COUNT.
+     */
+    private Slice<ProductResponseDTO> findByFilterIndex(Integer categoryId, Integer editorialId, Integer authorId,
+                                                        Boolean onlyActive, BigDecimal minPrice, BigDecimal maxPrice,
+                                                        String sort, int page, int size) {
+        boolean descending = "desc".equalsIgnoreCase(sort);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, "price"));
+
+        ProductFilterIndex.Result result = productFilterIndex.query(
+                categoryId, editorialId, authorId, onlyActive, minPrice, maxPrice, descending, pageable.getOffset(), size);
+
+        Map<Integer, Product> productsById = productRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDTO> content = result.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toResponseDTO)
+                .toList();
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    /**
+     * Productos activos paginados por cursor sobre (price, id), sin consulta COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponseDTO> findAllActiveByCursor(
+            Integer categoryId,
+            Integer editorialId,
+            Integer authorId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String title,
+            String sort,
+            String cursor,
+            int size
+    ) {
+        Specification<Product> spec = Specification
+                .where(ProductSpecification.hasCategory(categoryId))
+                .and(ProductSpecification.hasEditorial(editorialId))
+                .and(ProductSpecification.hasAuthor(authorId))
+                .and(ProductSpecification.hasPriceBetween(minPrice, maxPrice))
+                .and(ProductSpecification.titleContains(title))
+                .and(ProductSpecification.isActive(true)); // SOLO productos activos
+
+        return findByPriceCursor(spec, sort, cursor, size);
+    }
+
+    /**
+     * Todos los productos (activos e inactivos) paginados por cursor sobre (price, id).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponseDTO> findAllByCursor(
+            Integer categoryId,
+            Integer editorialId,
+            Integer authorId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String title,
+            String sort, // "asc" o "desc"
+            String cursor,
+            int size
+    ) {
+        Specification<Product> spec = Specification
+                .where(ProductSpecification.hasCategory(categoryId))
+                .and(ProductSpecification.hasEditorial(editorialId))
+                .and(ProductSpecification.hasAuthor(authorId))
+                .and(ProductSpecification.hasPriceBetween(minPrice, maxPrice))
+                .and(ProductSpecification.titleContains(title));
+
+        return findByPriceCursor(spec, sort, cursor, size);
+    }
+
+    private CursorPage<ProductResponseDTO> findByPriceCursor(Specification<Product> spec, String sort, String cursor, int size) {
+        boolean descending = "desc".equalsIgnoreCase(sort);
+        String[] keys = CursorCodec.decode(cursor, 2);
+        Specification<Product> seek = keys == null ? spec : spec.and(KeysetSpecification.seekAfter(
+                "price", new BigDecimal(keys[0]), Integer.valueOf(keys[1]), descending));
+
+        // Autor, categoría y editorial se resuelven desde la cache en el mapper
+        List<Product> rows = productRepository.findBy(seek, query -> query
+                .sortBy(KeysetSpecification.sort("price", descending))
+                .limit(size + 1)
+                .all());
+
+        return CursorPage.of(rows, size,
+                product -> CursorCodec.encode(product.getPrice().toPlainString(), product.getId()),
+                productMapper::toResponseDTO);
     }
 
     /**
@@ -143,6 +263,10 @@ public class ProductService {
      */
     public Optional<ProductResponseDTO> update(Integer id, ProductCreateDTO dto) {
         return productRepository.findById(id).map(existing -> {
+            // El cliente editó una versión anterior: otra operación (p. ej. una venta) modificó el producto
+            if (dto.getVersion() != null && !dto.getVersion().equals(existing.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Product.class, id);
+            }
             Author author = authorRepository.findById(dto.getAuthorId())
                     .orElseThrow(() -> new IllegalArgumentException("Autor no encontrado con ID: " + dto.getAuthorId()));
 
@@ -160,13 +284,16 @@ public class ProductService {
             existing.setCategory(category);
             existing.setEditorial(editorial);
             existing.setPrice(dto.getPrice());
+            if (dto.getStock() != null && existing.getStock() != null) {
+                stockReservationLedger.adjust(id, dto.getStock() - existing.getStock());
+            }
             existing.setStock(dto.getStock());
             existing.setDescription(dto.getDescription());
             existing.setPublicationDate(dto.getPublicationDate());
             existing.setActive(dto.getActive());
 
             Product updated = productRepository.save(existing);
-            return productMapper.toResponseDTO(updated);
+            return publishChanged(productMapper.toResponseDTO(updated));
         });
     }
 
@@ -176,6 +303,7 @@ public class ProductService {
     public boolean delete(Integer id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            eventPublisher.publishEvent(new ProductChangedEvent(id, null));
             return true;
         }
         return false;
@@ -187,7 +315,13 @@ public class ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("No se encontro el producto de ID: " + productId));
         product.setActive(active);
         productRepository.save(product);
-        return productMapper.toResponseDTO(product);
+        return publishChanged(productMapper.toResponseDTO(product));
+    }
+
+    // Los listeners (índices en memoria) se actualizan tras el commit
+    private ProductResponseDTO publishChanged(ProductResponseDTO product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product));
+        return product;
     }
 
 }
@@ -0,0 +1,196 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.ProductSuggestionDTO;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para el autocompletado de productos activos.
+ * <p>
+ * Cada término (título completo, palabras del título, nombre y palabras del autor, ISBN y
+ * código), normalizado sin mayúsculas ni tildes, apunta a los productos que lo contienen.
+ * Al estar ordenados, los términos que empiezan con un prefijo forman un rango contiguo.
+ * Las lecturas no bloquean; las escrituras se aplican tras el commit de cada cambio de producto
+ * (las que llegan durante la carga inicial se aplican al terminarla).
+ */
+@Component
+public class ProductSuggestionIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestionIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private final ConcurrentSkipListMap<String, Set<Integer>> productIdsByTerm = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Entry> entriesById = new ConcurrentHashMap<>();
+
+    private final ProductRepository productRepository;
+
+    // Cambios confirmados antes de terminar la carga; se aplican sobre ella (protegidos por el monitor)
+    private final List<ProductChangedEvent> pendingEvents = new ArrayList<>();
+    private boolean ready;
+
+    public ProductSuggestionIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductRepository.ProductSuggestionRow> rows = productRepository.findAllSuggestionRows();
+        synchronized (this) {
+            entriesById.clear();
+            productIdsByTerm.clear();
+            for (ProductRepository.ProductSuggestionRow row : rows) {
+                put(row.getId(), row.getTitle(), row.getAuthorName(), row.getIsbn(), row.getCode());
+            }
+            // La consulta pudo no ver cambios confirmados mientras se ejecutaba
+            pendingEvents.forEach(this::apply);
+            pendingEvents.clear();
+            ready = true;
+        }
+        log.info("✔ Índice de sugerencias cargado con {} productos", rows.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (ready) {
+            apply(event);
+        } else {
+            pendingEvents.add(event);
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        if (event.isDeleted() || !Boolean.TRUE.equals(event.product().getActive())) {
+            remove(event.productId());
+        } else {
+            ProductResponseDTO product = event.product();
+            put(product.getId(), product.getTitle(),
+                    product.getAuthor() != null ? product.getAuthor().getName() : null,
+                    product.getIsbn(), product.getCode());
+        }
+    }
+
+    /**
+     * Productos cuyo título, autor, ISBN o código empiezan con el texto indicado.
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        NavigableMap<String, Set<Integer>> range =
+                productIdsByTerm.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Set<Integer> termIds : range.values()) {
+            for (Integer id : termIds) {
+                ids.add(id);
+                if (ids.size() >= limit) {
+                    return toSuggestions(ids);
+                }
+            }
+        }
+        return toSuggestions(ids);
+    }
+
+    private List<ProductSuggestionDTO> toSuggestions(Set<Integer> ids) {
+        List<ProductSuggestionDTO> suggestions = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Entry entry = entriesById.get(id);
+            if (entry != null) {
+                suggestions.add(entry.suggestion());
+            }
+        }
+        return suggestions;
+    }
+
+    private synchronized void put(Integer id, String title, String authorName, String isbn, String code) {
+        removeTerms(entriesById.remove(id));
+
+        Set<String> terms = new LinkedHashSet<>();
+        addPhrase(terms, title);
+        addPhrase(terms, authorName);
+        addTerm(terms, isbn);
+        addTerm(terms, code);
+
+        ProductSuggestionDTO suggestion = ProductSuggestionDTO.builder()
+                .id(id)
+                .title(title)
+                .authorName(authorName)
+                .isbn(isbn)
+                .code(code)
+                .build();
+        entriesById.put(id, new Entry(suggestion, terms));
+        for (String term : terms) {
+            productIdsByTerm.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private synchronized void remove(Integer productId) {
+        removeTerms(entriesById.remove(productId));
+    }
+
+    private void removeTerms(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms()) {
+            productIdsByTerm.computeIfPresent(term, (key, ids) -> {
+                ids.remove(entry.suggestion().getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // Texto completo y cada una de sus palabras, para encontrar también palabras intermedias
+    private static void addPhrase(Set<String> terms, String phrase) {
+        addTerm(terms, phrase);
+        if (phrase != null) {
+            for (String word : WORD_SEPARATOR.split(normalize(phrase))) {
+                if (word.length() >= MIN_WORD_LENGTH) {
+                    terms.add(word);
+                }
+            }
+        }
+    }
+
+    private static void addTerm(Set<String> terms, String value) {
+        String normalized = normalize(value);
+        if (!normalized.isEmpty()) {
+            terms.add(normalized);
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(ProductSuggestionDTO suggestion, Set<String> terms) {
+    }
+}
@@ -0,0 +1,255 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserva de stock en memoria (opcional) para picos de ventas.
+ * <p>
+ * Mantiene un contador atómico de unidades disponibles por producto ({@code stock} menos lo
+ * vendido y aún no aplicado). Una venta se admite o rechaza con operaciones CAS sobre esos
+ * contadores, sin tomar el bloqueo de la fila del producto; sus ítems quedan con
+ * {@code stock_applied = false} en la misma transacción de la venta. Un proceso periódico
+ * aplica los descuentos pendientes a {@code products.stock} en una sola sentencia.
+ * <p>
+ * Lo pendiente se registra con la venta, por lo que un reinicio no pierde descuentos:
+ * {@link #reconcile()} los aplica al arrancar y recarga los contadores. Los contadores son
+ * locales a la instancia; solo debe habilitarse con una única instancia de la aplicación.
+ * <p>
+ * Limitación: el contador de un producto que no estaba cargado (creado tras el arranque) se
+ * lee de la base al primer uso. Si un aumento de stock de ese producto se confirma mientras
+ * esa lectura está en curso, no puede saberse si la lectura ya lo incluye: el aumento no se
+ * suma y el contador queda por debajo del stock real (nunca por encima, por lo que no se
+ * vende de más) hasta el siguiente {@link #reconcile()}, es decir, hasta el próximo arranque.
+ * Se habilita con {@code app.stock.reservation.enabled=true}.
+ */
+@Component
+public class StockReservationLedger {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationLedger.class);
+
+    private static final String SQL_PENDING_INDEX = """
+            CREATE INDEX IF NOT EXISTS idx_sale_items_stock_pending
+                ON sale_items (id) WHERE stock_applied = false
+            """;
+
+    private static final String SQL_AVAILABLE = """
+            SELECT p.id, p.stock - COALESCE(pending.quantity, 0) AS available
+            FROM products p
+            LEFT JOIN (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM sale_items
+                WHERE stock_applied = false
+                GROUP BY product_id
+            ) pending ON pending.product_id = p.id
+            """;
+
+    private static final String SQL_AVAILABLE_BY_ID = SQL_AVAILABLE + " WHERE p.id = ?";
+
+    // Marca un bloque de ítems pendientes y descuenta su total por producto en la misma sentencia
+    private static final String SQL_FLUSH = """
+            WITH pending AS (
+                SELECT id, product_id, quantity
+                FROM sale_items
+                WHERE stock_applied = false
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), applied AS (
+                UPDATE sale_items si SET stock_applied = true
+                FROM pending
+                WHERE si.id = pending.id
+            ), totals AS (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM pending
+                GROUP BY product_id
+            )
+            UPDATE products p
+            SET stock = p.stock - totals.quantity, version = p.version + 1
+            FROM totals
+            WHERE p.id = totals.product_id
+            RETURNING p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final int flushBatchSize;
+
+    private final Map<Integer, AtomicInteger> availableByProduct = new ConcurrentHashMap<>();
+
+    public StockReservationLedger(JdbcTemplate jdbcTemplate,
+                                  CatalogVersion catalogVersion,
+                                  @Value("${app.stock.reservation.enabled:false}") boolean enabled,
+                                  @Value("${app.stock.reservation.flush-batch-size:5000}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserva las cantidades indicadas (por ID de producto) o ninguna si alguna no alcanza.
+     * Si la transacción actual se revierte, las unidades se devuelven.
+     */
+    public void reserve(Map<Integer, Integer> quantitiesByProduct) {
+        if (!enabled || quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> reserved = new TreeMap<>();
+        try {
+            for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantitiesByProduct).entrySet()) {
+                if (!tryTake(counter(entry.getKey()), entry.getValue())) {
+                    throw new IllegalArgumentException("Stock insuficiente para el producto con ID: " + entry.getKey());
+                }
+                reserved.put(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException ex) {
+            reserved.forEach(this::release);
+            throw ex;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        reserved.forEach(StockReservationLedger.this::release);
+                    } else if (status == STATUS_UNKNOWN) {
+                        // Se mantiene la reserva: como mucho se deja de vender hasta el próximo arranque
+                        log.warn("Resultado desconocido de la transacción; se conservan las reservas {}", reserved);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Refleja un cambio directo de {@code products.stock} (movimientos de inventario, edición
+     * del producto). Una disminución se reserva de inmediato y puede rechazarse; un aumento se
+     * suma tras el commit.
+     */
+    public void adjust(Integer productId, int delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        if (delta < 0) {
+            reserve(Map.of(productId, -delta));
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(productId, delta);
+                }
+            });
+        } else {
+            release(productId, delta);
+        }
+    }
+
+    /**
+     * Aplica a {@code products.stock} los descuentos pendientes de las ventas ya confirmadas.
+     */
+    @Scheduled(fixedDelayString = "${app.stock.reservation.flush-interval:PT1S}")
+    public void flush() {
+        if (enabled) {
+            flushPending();
+        }
+    }
+
+    /**
+     * Recuperación al arrancar: aplica lo que quedó pendiente (aunque la reserva esté
+     * deshabilitada ahora) y, si está habilitada, recarga los contadores desde la base.
+     */
+    public void reconcile() {
+        jdbcTemplate.execute(SQL_PENDING_INDEX);
+        int products = 0;
+        int flushed;
+        while ((flushed = flushPending()) > 0) {
+            products += flushed;
+        }
+        if (products > 0) {
+            log.info("✔ Descuentos de stock pendientes aplicados en {} producto(s)", products);
+        }
+        if (enabled) {
+            // putIfAbsent: un contador ya cargado al primer uso puede tener reservas en curso
+            jdbcTemplate.query(SQL_AVAILABLE, rs -> {
+                availableByProduct.putIfAbsent(rs.getInt("id"), new AtomicInteger(rs.getInt("available")));
+            });
+            log.info("✔ Reserva de stock en memoria habilitada ({} productos)", availableByProduct.size());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            availableByProduct.remove(event.productId());
+        }
+    }
+
+    // Devuelve la cantidad de productos cuyo stock se actualizó
+    private int flushPending() {
+        List<Integer> updated = jdbcTemplate.queryForList(SQL_FLUSH, Integer.class, flushBatchSize);
+        if (!updated.isEmpty()) {
+            catalogVersion.changed();
+        }
+        return updated.size();
+    }
+
+    // Los productos creados tras el arranque se cargan al primer uso. La consulta se hace fuera
+    // de computeIfAbsent para no bloquear el mapa durante la E/S; si dos hilos cargan el mismo
+    // producto a la vez, gana el primero en publicarlo.
+    private AtomicInteger counter(Integer productId) {
+        AtomicInteger available = availableByProduct.get(productId);
+        if (available != null) {
+            return available;
+        }
+        List<Integer> rows = jdbcTemplate.query(SQL_AVAILABLE_BY_ID, (rs, rowNum) -> rs.getInt("available"), productId);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Producto no encontrado con ID: " + productId);
+        }
+        AtomicInteger loaded = new AtomicInteger(rows.get(0));
+        AtomicInteger existing = availableByProduct.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static boolean tryTake(AtomicInteger available, int quantity) {
+        int current;
+        do {
+            current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // Sin contador no hay nada que devolver: la próxima carga lee el stock ya confirmado
+    // (ver la limitación descrita en la documentación de la clase)
+    private void release(Integer productId, int quantity) {
+        AtomicInteger available = availableByProduct.get(productId);
+        if (available != null) {
+            available.addAndGet(quantity);
+        } else {
+            log.debug("Aumento de {} unidad(es) del producto {} sin contador cargado", quantity, productId);
+        }
+    }
+}
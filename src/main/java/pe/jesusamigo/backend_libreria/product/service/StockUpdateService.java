@@ -1,36 +1,58 @@
 package pe.jesusamigo.backend_libreria.product.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import pe.jesusamigo.backend_libreria.product.entity.Product;
-import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class StockUpdateService {
 
-    private final ProductRepository productRepository;
+    // UPDATE condicional: evita la lectura previa y la carrera entre ventas concurrentes
+    private static final String SQL_DECREASE_STOCK_IF_AVAILABLE =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
 
     /**
-     * Disminuye el stock de un producto según una cantidad vendida.
-     * Lanza IllegalArgumentException si no hay suficiente stock o el producto no existe.
+     * Descuenta el stock de varios productos en un único lote JDBC (un viaje a la base de datos).
+     * Si algún producto no tiene stock suficiente se lanza IllegalArgumentException y la
+     * transacción completa se revierte.
      *
-     * @param productId ID del producto a actualizar
-     * @param quantity  Cantidad vendida (debe ser mayor que cero)
+     * @param quantitiesByProduct cantidad total a descontar por ID de producto
      */
-    public void decreaseStockBySale(Integer productId, Integer quantity) {
-        if (quantity == null || quantity <= 0) {
-            throw new IllegalArgumentException("La cantidad a descontar debe ser mayor que cero.");
+    public void decreaseStockBySales(Map<Integer, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        // Orden por ID: las filas se bloquean siempre en el mismo orden y se evitan deadlocks entre ventas
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByProduct).entrySet());
+        for (Map.Entry<Integer, Integer> entry : entries) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("La cantidad a descontar debe ser mayor que cero.");
+            }
         }
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + productId));
-        Integer currentStock = product.getStock() != null ? product.getStock() : 0;
-        if (currentStock < quantity) {
-            throw new IllegalArgumentException("Stock insuficiente para completar la venta.");
+
+        int[][] results = jdbcTemplate.batchUpdate(SQL_DECREASE_STOCK_IF_AVAILABLE, entries, entries.size(),
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setInt(2, entry.getKey());
+                    ps.setInt(3, entry.getValue());
+                });
+
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[0][i] == 0) {
+                throw new IllegalArgumentException("Stock insuficiente para el producto con ID: " + entries.get(i).getKey());
+            }
         }
-        product.setStock(currentStock - quantity);
-        productRepository.save(product);
+        catalogVersion.changed();
     }
 }
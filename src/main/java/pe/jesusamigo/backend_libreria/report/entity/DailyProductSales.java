@@ -0,0 +1,69 @@
+package pe.jesusamigo.backend_libreria.report.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ventas acumuladas por día, producto y vendedor. Se actualiza al registrar cada venta y se
+ * recalcula periódicamente (ver DailySalesRollupService); los reportes por rango de días la
+ * consultan en lugar de recorrer el detalle de ventas.
+ */
+@Entity
+@Table(name = DailyProductSales.TABLE_NAME, indexes = {
+        @Index(name = "idx_daily_product_sales_date", columnList = DailyProductSales.COLUMN_SALE_DATE)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class DailyProductSales {
+
+    public static final String TABLE_NAME = "daily_product_sales";
+    public static final String COLUMN_SALE_DATE = "sale_date";
+    public static final String COLUMN_PRODUCT_ID = "product_id";
+    public static final String COLUMN_USER_ID = "user_id";
+    public static final String COLUMN_QUANTITY = "quantity";
+    public static final String COLUMN_REVENUE = "revenue";
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = COLUMN_SALE_DATE, nullable = false)
+        private LocalDate saleDate;
+
+        @Column(name = COLUMN_PRODUCT_ID, nullable = false)
+        private Integer productId;
+
+        @Column(name = COLUMN_USER_ID, nullable = false)
+        private Integer userId;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @NotNull
+    @Column(name = COLUMN_QUANTITY, nullable = false)
+    private Long quantity;
+
+    @NotNull
+    @Column(name = COLUMN_REVENUE, nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
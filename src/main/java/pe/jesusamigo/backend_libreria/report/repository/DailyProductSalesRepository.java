@@ -0,0 +1,41 @@
+package pe.jesusamigo.backend_libreria.report.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pe.jesusamigo.backend_libreria.report.dto.ProductSalesReportDTO;
+import pe.jesusamigo.backend_libreria.report.entity.DailyProductSales;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, DailyProductSales.Key> {
+
+    @Query("""
+        SELECT new pe.jesusamigo.backend_libreria.report.dto.ProductSalesReportDTO(
+            p.id, p.title, SUM(d.quantity)
+        )
+        FROM DailyProductSales d
+        JOIN Product p ON p.id = d.id.productId
+        GROUP BY p.id, p.title
+        ORDER BY SUM(d.quantity) DESC
+    """)
+    List<ProductSalesReportDTO> findTopSellingProducts(Pageable pageable);
+
+    @Query("""
+        SELECT new pe.jesusamigo.backend_libreria.report.dto.ProductSalesReportDTO(
+            p.id, p.title, SUM(d.quantity)
+        )
+        FROM DailyProductSales d
+        JOIN Product p ON p.id = d.id.productId
+        WHERE d.id.saleDate >= :startDate AND d.id.saleDate <= :endDate
+        GROUP BY p.id, p.title
+        ORDER BY SUM(d.quantity) DESC
+    """)
+    List<ProductSalesReportDTO> findTopSellingProductsBetweenDates(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+}
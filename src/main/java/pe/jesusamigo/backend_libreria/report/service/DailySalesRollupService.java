@@ -0,0 +1,181 @@
+package pe.jesusamigo.backend_libreria.report.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.jesusamigo.backend_libreria.sale.entity.Sale;
+import pe.jesusamigo.backend_libreria.sale.entity.SaleItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene la tabla {@code daily_product_sales}.
+ * <p>
+ * Cada venta suma sus ítems a la fila de su día, producto y vendedor dentro de la misma
+ * transacción. Un proceso nocturno recalcula los últimos días desde el detalle de ventas y, al
+ * arrancar, la tabla se completa desde todo el historial si la carga inicial no consta como
+ * terminada en {@code report_rollup_state}. Hasta entonces los reportes siguen consultando el
+ * detalle.
+ * <p>
+ * Los recálculos toman un bloqueo consultivo exclusivo y cada venta uno compartido: un
+ * recálculo espera a las ventas en curso y las nuevas esperan a que termine, de modo que
+ * ninguna venta queda fuera ni se cuenta dos veces.
+ */
+@Service
+public class DailySalesRollupService {
+    private static final Logger log = LoggerFactory.getLogger(DailySalesRollupService.class);
+
+    private static final String SQL_UPSERT = """
+            INSERT INTO daily_product_sales (sale_date, product_id, user_id, quantity, revenue)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (sale_date, product_id, user_id) DO UPDATE
+            SET quantity = daily_product_sales.quantity + EXCLUDED.quantity,
+                revenue = daily_product_sales.revenue + EXCLUDED.revenue
+            """;
+
+    private static final String SQL_DELETE_FROM = "DELETE FROM daily_product_sales WHERE sale_date >= ?";
+
+    private static final String SQL_REBUILD_FROM = """
+            INSERT INTO daily_product_sales (sale_date, product_id, user_id, quantity, revenue)
+            SELECT CAST(s.sale_date AS date), si.product_id, s.user_id, SUM(si.quantity), SUM(si.total_price)
+            FROM sales s
+            JOIN sale_items si ON si.sale_id = s.id
+            WHERE s.sale_date >= ?
+            GROUP BY CAST(s.sale_date AS date), si.product_id, s.user_id
+            ON CONFLICT (sale_date, product_id, user_id) DO UPDATE
+            SET quantity = EXCLUDED.quantity,
+                revenue = EXCLUDED.revenue
+            """;
+
+    private static final String SQL_STATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS report_rollup_state (
+                name VARCHAR(50) PRIMARY KEY,
+                completed_at TIMESTAMP NOT NULL
+            )
+            """;
+
+    private static final String SQL_BACKFILL_DONE =
+            "SELECT EXISTS (SELECT 1 FROM report_rollup_state WHERE name = ?)";
+
+    private static final String SQL_MARK_BACKFILL_DONE = """
+            INSERT INTO report_rollup_state (name, completed_at) VALUES (?, now())
+            ON CONFLICT (name) DO NOTHING
+            """;
+
+    private static final String SQL_LOCK_SHARED = "SELECT pg_advisory_xact_lock_shared(?)";
+
+    private static final String SQL_LOCK_EXCLUSIVE = "SELECT pg_advisory_xact_lock(?)";
+
+    // Clave del bloqueo consultivo que ordena ventas y recálculos ("rollup" en ASCII)
+    private static final long ROLLUP_LOCK_KEY = 0x726F6C6C7570L;
+
+    private static final String BACKFILL_MARKER = "daily_product_sales";
+
+    private static final LocalDate HISTORY_START = LocalDate.of(1900, 1, 1);
+
+    private record RollupKey(LocalDate saleDate, Integer productId, Integer userId) {
+    }
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::saleDate)
+            .thenComparing(RollupKey::productId)
+            .thenComparing(RollupKey::userId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildDays;
+    private volatile boolean ready;
+
+    public DailySalesRollupService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.reports.rollup.rebuild-days:3}") int rebuildDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildDays = rebuildDays;
+    }
+
+    /**
+     * Indica si la tabla contiene todo el historial y los reportes pueden consultarla.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Suma las ventas registradas a la tabla (debe llamarse en la transacción de la venta).
+     */
+    public void record(List<Sale> sales) {
+        // Orden fijo de filas: dos ventas concurrentes no se bloquean en orden inverso
+        Map<RollupKey, Long> quantities = new TreeMap<>(KEY_ORDER);
+        Map<RollupKey, BigDecimal> revenues = new TreeMap<>(KEY_ORDER);
+        for (Sale sale : sales) {
+            for (SaleItem item : sale.getItems()) {
+                RollupKey key = new RollupKey(sale.getSaleDate().toLocalDate(), item.getProduct().getId(), sale.getUser().getId());
+                quantities.merge(key, (long) item.getQuantity(), Long::sum);
+                revenues.merge(key, item.getTotalPrice(), BigDecimal::add);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // Se libera al terminar la transacción de la venta
+        jdbcTemplate.queryForList(SQL_LOCK_SHARED, ROLLUP_LOCK_KEY);
+        List<RollupKey> keys = new ArrayList<>(quantities.keySet());
+        jdbcTemplate.batchUpdate(SQL_UPSERT, keys, keys.size(), (ps, key) -> {
+            ps.setObject(1, key.saleDate());
+            ps.setInt(2, key.productId());
+            ps.setInt(3, key.userId());
+            ps.setLong(4, quantities.get(key));
+            ps.setBigDecimal(5, revenues.get(key));
+        });
+    }
+
+    /**
+     * Recalcula los últimos días desde el detalle (corrige ventas con fecha retroactiva o
+     * cualquier diferencia).
+     */
+    @Scheduled(cron = "${app.reports.rollup.cron:0 30 2 * * *}")
+    public void refreshRecentDays() {
+        rebuildFrom(LocalDate.now().minusDays(rebuildDays));
+    }
+
+    /**
+     * Carga inicial desde todo el historial. Se decide por la marca de carga terminada y no por
+     * si la tabla tiene filas: las ventas registradas antes de este evento ya escriben en ella.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        jdbcTemplate.execute(SQL_STATE_TABLE);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_BACKFILL_DONE, Boolean.class, BACKFILL_MARKER))) {
+            transactionTemplate.executeWithoutResult(status -> {
+                rebuild(HISTORY_START);
+                jdbcTemplate.update(SQL_MARK_BACKFILL_DONE, BACKFILL_MARKER);
+            });
+            log.info("✔ Resumen diario de ventas generado desde el historial");
+        }
+        ready = true;
+    }
+
+    private void rebuildFrom(LocalDate from) {
+        transactionTemplate.executeWithoutResult(status -> rebuild(from));
+    }
+
+    // Debe ejecutarse en una transacción: el bloqueo se mantiene hasta el commit
+    private void rebuild(LocalDate from) {
+        jdbcTemplate.queryForList(SQL_LOCK_EXCLUSIVE, ROLLUP_LOCK_KEY);
+        jdbcTemplate.update(SQL_DELETE_FROM, from);
+        jdbcTemplate.update(SQL_REBUILD_FROM, from.atStartOfDay());
+    }
+}
@@ -6,18 +6,35 @@ import org.springframework.stereotype.Service;
 import pe.jesusamigo.backend_libreria.report.dto.ProductLowStockReportDTO;
 import pe.jesusamigo.backend_libreria.report.dto.ProductSalesReportDTO;
 import pe.jesusamigo.backend_libreria.report.dto.SaleReportDTO;
+import pe.jesusamigo.backend_libreria.report.repository.DailyProductSalesRepository;
 import pe.jesusamigo.backend_libreria.report.repository.ProductReportRepository;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ProductReportService {
 
+    // Un rango termina en un día completo si llega al último segundo del día
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+
     private final ProductReportRepository productReportRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final DailySalesRollupService dailySalesRollupService;
 
     public List<ProductSalesReportDTO> getTopSellingProducts(int limit, LocalDateTime startDate, LocalDateTime endDate) {
+        // Con días completos se usa el resumen diario en lugar del detalle de ventas
+        if (dailySalesRollupService.isReady()) {
+            if (startDate == null && endDate == null) {
+                return dailyProductSalesRepository.findTopSellingProducts(PageRequest.of(0, limit));
+            }
+            if (isDayAligned(startDate, endDate)) {
+                return dailyProductSalesRepository.findTopSellingProductsBetweenDates(
+                        startDate.toLocalDate(), endDate.toLocalDate(), PageRequest.of(0, limit));
+            }
+        }
         if (startDate != null && endDate != null) {
             return productReportRepository.findTopSellingProductsBetweenDates(startDate, endDate, PageRequest.of(0, limit));
         } else {
@@ -66,4 +83,10 @@ public class ProductReportService {
     public List<ProductLowStockReportDTO> getProductsWithLowStock(int threshold) {
         return productReportRepository.findProductsWithLowStock(threshold);
     }
+
+    private static boolean isDayAligned(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate != null && endDate != null
+                && startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && !endDate.toLocalTime().isBefore(END_OF_DAY);
+    }
 }
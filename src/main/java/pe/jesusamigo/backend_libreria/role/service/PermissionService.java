@@ -1,10 +1,13 @@
 package pe.jesusamigo.backend_libreria.role.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.exception.ResourceNotFoundException;
 import pe.jesusamigo.backend_libreria.role.entity.Permission;
 import pe.jesusamigo.backend_libreria.role.repository.PermissionRepository;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 
 import java.util.List;
 
@@ -13,6 +16,7 @@ import java.util.List;
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     public List<Permission> getAllPermissions() {
         return permissionRepository.findAll();
@@ -60,9 +64,11 @@ public class PermissionService {
         return permissionRepository.save(existing);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void deletePermission(Integer id) {
         Permission permission = getPermissionById(id);
         permissionRepository.delete(permission);
+        tokenVersionRegistry.refreshAfterCommit();
     }
 
     private void validatePermission(Permission permission, boolean isNew) {
@@ -1,20 +1,25 @@
 package pe.jesusamigo.backend_libreria.role.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.exception.ResourceNotFoundException;
 import pe.jesusamigo.backend_libreria.role.entity.Permission;
 import pe.jesusamigo.backend_libreria.role.entity.Role;
 import pe.jesusamigo.backend_libreria.role.repository.PermissionRepository;
 import pe.jesusamigo.backend_libreria.role.repository.RoleRepository;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 
 @Service
 @RequiredArgsConstructor
 public class RolePermissionService {
     private final RoleRepository roleRepo;
     private final PermissionRepository permRepo;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     @Transactional
     public Role addPermissionToRole(Integer roleId, String permName) {
         Role role = roleRepo.findById(roleId)
@@ -22,9 +27,11 @@ public class RolePermissionService {
         Permission p = permRepo.findByName(permName)
                 .orElseThrow(() -> new ResourceNotFoundException("No se encontro el permiso: " + permName));
         role.getPermissions().add(p);
+        tokenVersionRegistry.refreshAfterCommit();
         return roleRepo.save(role);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     @Transactional
     public Role removePermissionFromRole(Integer roleId, String permName) {
         Role role = roleRepo.findById(roleId)
@@ -32,6 +39,7 @@ public class RolePermissionService {
         Permission p = permRepo.findByName(permName)
                 .orElseThrow(() -> new ResourceNotFoundException("No se encontro el permiso: " + permName));
         role.getPermissions().remove(p);
+        tokenVersionRegistry.refreshAfterCommit();
         return roleRepo.save(role);
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package pe.jesusamigo.backend_libreria.role.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.exception.ResourceNotFoundException;
 import pe.jesusamigo.backend_libreria.role.entity.Permission;
 import pe.jesusamigo.backend_libreria.role.entity.Role;
 import pe.jesusamigo.backend_libreria.role.repository.PermissionRepository;
 import pe.jesusamigo.backend_libreria.role.repository.RoleRepository;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,6 +20,7 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     public Role createRole(Role role) {
         validateRole(role, true);
@@ -44,6 +48,7 @@ public class RoleService {
                 .collect(Collectors.toList());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public Role updateRole(Integer id, Role roleDetails) {
         validateRole(roleDetails, false);
 
@@ -56,9 +61,12 @@ public class RoleService {
         existingRole.setDescription(roleDetails.getDescription());
         existingRole.setPermissions(roleDetails.getPermissions());
 
-        return roleRepository.save(existingRole);
+        Role saved = roleRepository.save(existingRole);
+        tokenVersionRegistry.refreshAfterCommit();
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void deleteRole(Integer id) {
         Role role = getRoleById(id);
 
@@ -67,6 +75,7 @@ public class RoleService {
         }
 
         roleRepository.delete(role);
+        tokenVersionRegistry.refreshAfterCommit();
     }
 
     private void validateRole(Role role, boolean isNew) {
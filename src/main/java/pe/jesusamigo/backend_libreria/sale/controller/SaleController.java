@@ -10,14 +10,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
+import pe.jesusamigo.backend_libreria.idempotency.IdempotencyService;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchRequestDTO;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchResultDTO;
 import pe.jesusamigo.backend_libreria.sale.dto.SaleCreateDTO;
 import pe.jesusamigo.backend_libreria.sale.dto.SaleResponseDTO;
+import pe.jesusamigo.backend_libreria.sale.service.SaleBatchService;
 import pe.jesusamigo.backend_libreria.sale.service.SaleService;
 
 import java.time.LocalDateTime;
@@ -30,29 +35,57 @@ import java.util.List;
 public class SaleController {
 
     private final SaleService saleService;
+    private final SaleBatchService saleBatchService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(
             summary = "Registrar una nueva venta",
-            description = "Registra una venta con su detalle e impacta en el stock de los productos vendidos."
+            description = "Registra una venta con su detalle e impacta en el stock de los productos vendidos. "
+                    + "Si se envía la cabecera Idempotency-Key, un reintento con la misma clave devuelve la venta ya registrada."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Venta registrada exitosamente",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = SaleResponseDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos, usuario o productos no encontrados, o stock insuficiente", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, usuario o productos no encontrados, o stock insuficiente", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya fue usada con otros datos", content = @Content)
     })
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_SALE')")
     public ResponseEntity<SaleResponseDTO> registerSale(
+            @Parameter(description = "Clave única para reintentos seguros", example = "pos-03-000125")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Datos de la venta a registrar", required = true)
             @Valid @RequestBody SaleCreateDTO saleCreateDTO
     ) {
-        SaleResponseDTO result = saleService.registerSale(saleCreateDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        return idempotencyService.execute("sale", idempotencyKey, saleCreateDTO, () -> {
+            SaleResponseDTO result = saleService.registerSale(saleCreateDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        });
+    }
+
+    @Operation(
+            summary = "Registrar un lote de ventas diferidas",
+            description = "Registra ventas encoladas por terminales sin conexión. Cada venta lleva una clave única; "
+                    + "las claves ya registradas se informan como duplicadas sin volver a descontar stock. "
+                    + "Devuelve el resultado de cada venta en el mismo orden del lote."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado; revise el estado de cada venta",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SaleBatchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos en el lote", content = @Content)
+    })
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('CREATE_SALE')")
+    public ResponseEntity<List<SaleBatchResultDTO>> registerSaleBatch(
+            @Parameter(description = "Ventas a registrar", required = true)
+            @Valid @RequestBody SaleBatchRequestDTO request
+    ) {
+        return ResponseEntity.ok(saleBatchService.registerSales(request.getSales()));
     }
 
     @Operation(
             summary = "Consultar historial de ventas filtrado, paginado y ordenado",
-            description = "Filtra ventas por usuario (opcional), por rango de fechas, y permite paginación y orden por fecha."
+            description = "Filtra ventas por usuario (opcional), por rango de fechas, y permite paginación y orden por fecha. Con withCount=false no se calcula el total de registros."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ventas obtenidas correctamente",
@@ -60,16 +93,43 @@ public class SaleController {
     })
     @GetMapping
     @PreAuthorize("hasAuthority('GET_SALES')")
-    public ResponseEntity<Page<SaleResponseDTO>> getSales(
+    public ResponseEntity<Slice<SaleResponseDTO>> getSales(
             @Parameter(description = "ID del usuario vendedor") @RequestParam(required = false) Integer userId,
             @Parameter(description = "Fecha inicial (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "Fecha final (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @Parameter(description = "Ordenar por fecha (asc o desc)", example = "desc") @RequestParam(required = false, defaultValue = "desc") String sort,
             @Parameter(description = "Número de página (inicia en 0)", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Incluir el total de registros y páginas (false evita la consulta COUNT)", example = "true") @RequestParam(defaultValue = "true") boolean withCount
+    ) {
+        Slice<SaleResponseDTO> sales = saleService.findAllFiltered(
+                userId, startDate, endDate, sort, page, size, withCount
+        );
+        return ResponseEntity.ok(sales);
+    }
+
+    @Operation(
+            summary = "Consultar historial de ventas por cursor",
+            description = "Igual que el listado paginado, pero avanza con el cursor devuelto en cada página (orden por fecha e ID). "
+                    + "No calcula el total de registros, por lo que las páginas profundas responden igual de rápido."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ventas obtenidas correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido", content = @Content)
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAuthority('GET_SALES')")
+    public ResponseEntity<CursorPage<SaleResponseDTO>> getSalesByCursor(
+            @Parameter(description = "ID del usuario vendedor") @RequestParam(required = false) Integer userId,
+            @Parameter(description = "Fecha inicial (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "Fecha final (yyyy-MM-dd'T'HH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Ordenar por fecha (asc o desc)", example = "desc") @RequestParam(required = false, defaultValue = "desc") String sort,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)") @RequestParam(required = false) String cursor,
             @Parameter(description = "Tamaño de página", example = "20") @RequestParam(defaultValue = "20") int size
     ) {
-        Page<SaleResponseDTO> sales = saleService.findAllFiltered(
-                userId, startDate, endDate, sort, page, size
+        CursorPage<SaleResponseDTO> sales = saleService.findAllByCursor(
+                userId, startDate, endDate, sort, cursor, size
         );
         return ResponseEntity.ok(sales);
     }
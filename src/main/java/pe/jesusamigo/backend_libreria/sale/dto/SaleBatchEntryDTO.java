@@ -0,0 +1,43 @@
+package pe.jesusamigo.backend_libreria.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.jesusamigo.backend_libreria.sale.entity.Sale;
+
+import java.time.LocalDateTime;
+
+/**
+ * Venta encolada por un terminal junto con su clave de idempotencia.
+ */
+@Schema(
+        name = "SaleBatchEntryDTO",
+        description = "Venta diferida con la clave única asignada por el terminal"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleBatchEntryDTO {
+
+    @Schema(description = "Clave única de la venta generada por el terminal", example = "pos-03-000125", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "La clave de la venta es obligatoria")
+    @Size(max = Sale.CLIENT_KEY_MAX_LENGTH, message = "La clave de la venta no puede superar los 64 caracteres")
+    private String clientKey;
+
+    @Schema(description = "Fecha en que se realizó la venta en el terminal (por defecto, la de registro)", example = "2025-06-01T10:15:30")
+    @PastOrPresent(message = "La fecha de la venta no puede ser futura")
+    private LocalDateTime saleDate;
+
+    @Schema(description = "Datos de la venta", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Los datos de la venta son obligatorios")
+    @Valid
+    private SaleCreateDTO sale;
+}
@@ -0,0 +1,36 @@
+package pe.jesusamigo.backend_libreria.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para registrar un lote de ventas diferidas.
+ */
+@Schema(
+        name = "SaleBatchRequestDTO",
+        description = "Lote de ventas encoladas por un terminal sin conexión"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleBatchRequestDTO {
+
+    @ArraySchema(
+            schema = @Schema(implementation = SaleBatchEntryDTO.class),
+            minItems = 1
+    )
+    @NotNull(message = "Debe enviar al menos una venta")
+    @Size(min = 1, max = 10000, message = "El lote debe contener entre 1 y 10000 ventas")
+    @Valid
+    private List<SaleBatchEntryDTO> sales;
+}
@@ -0,0 +1,39 @@
+package pe.jesusamigo.backend_libreria.sale.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.jesusamigo.backend_libreria.sale.enums.SaleBatchStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado del registro de una venta dentro de un lote.
+ */
+@Schema(
+        name = "SaleBatchResultDTO",
+        description = "Resultado individual de una venta del lote"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleBatchResultDTO {
+
+    @Schema(description = "Clave de la venta enviada por el terminal", example = "pos-03-000125")
+    private String clientKey;
+
+    @Schema(description = "Resultado: CREATED, DUPLICATE, REJECTED o FAILED", example = "CREATED")
+    private SaleBatchStatus status;
+
+    @Schema(description = "ID de la venta registrada (o ya existente si es duplicada)", example = "1024")
+    private Integer saleId;
+
+    @Schema(description = "Monto total de la venta registrada", example = "150.00")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "Motivo del rechazo o error", example = "Stock insuficiente para el producto El Quijote")
+    private String message;
+}
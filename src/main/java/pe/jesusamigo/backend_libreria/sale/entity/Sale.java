@@ -7,9 +7,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
@@ -27,7 +29,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = Sale.TABLE_NAME)
+@Table(name = Sale.TABLE_NAME, indexes = {
+        @Index(name = "idx_sales_sale_date", columnList = Sale.COLUMN_SALE_DATE)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,16 +40,21 @@ import java.util.List;
 public class Sale {
 
     public static final String TABLE_NAME = "sales";
+    public static final String SEQUENCE_NAME = "sales_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
     public static final String COLUMN_ID = "id";
     public static final String COLUMN_TOTAL_AMOUNT = "total_amount";
     public static final String COLUMN_SALE_DATE = "sale_date";
     public static final String COLUMN_CUSTOMER_NAME = "customer_name";
     public static final String COLUMN_AMOUNT_PAID = "amount_paid";
     public static final String COLUMN_CHANGE = "change_amount";
+    public static final String COLUMN_CLIENT_KEY = "client_key";
     public static final int CUSTOMER_NAME_MAX_LENGTH = 100;
+    public static final int CLIENT_KEY_MAX_LENGTH = 64;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = COLUMN_ID)
     private Integer id;
 
@@ -76,6 +85,11 @@ public class Sale {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Clave de idempotencia enviada por el terminal (ventas diferidas / sincronización offline)
+    @Size(max = CLIENT_KEY_MAX_LENGTH)
+    @Column(name = COLUMN_CLIENT_KEY, length = CLIENT_KEY_MAX_LENGTH, unique = true)
+    private String clientKey;
+
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<SaleItem> items;
 }
\ No newline at end of file
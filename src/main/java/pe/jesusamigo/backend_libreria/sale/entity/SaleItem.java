@@ -6,8 +6,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
@@ -18,12 +20,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = SaleItem.TABLE_NAME)
+@Table(name = SaleItem.TABLE_NAME, indexes = {
+        @Index(name = "idx_sale_items_sale", columnList = "sale_id"),
+        @Index(name = "idx_sale_items_product_date", columnList = "product_id, sale_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,13 +39,18 @@ import java.math.BigDecimal;
 public class SaleItem {
 
     public static final String TABLE_NAME = "sale_items";
+    public static final String SEQUENCE_NAME = "sale_items_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
     public static final String COLUMN_ID = "id";
     public static final String COLUMN_QUANTITY = "quantity";
     public static final String COLUMN_UNIT_PRICE = "unit_price";
     public static final String COLUMN_TOTAL_PRICE = "total_price";
+    public static final String COLUMN_STOCK_APPLIED = "stock_applied";
+    public static final String COLUMN_SALE_DATE = "sale_date";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = COLUMN_ID)
     private Integer id;
 
@@ -68,4 +80,15 @@ public class SaleItem {
     @Digits(integer = 10, fraction = 2)
     @Column(name = COLUMN_TOTAL_PRICE, nullable = false, precision = 12, scale = 2)
     private BigDecimal totalPrice;
+
+    // Copia de la fecha de la venta: permite recorrer las ventas de un producto por fecha sin unir con sales
+    @Column(name = COLUMN_SALE_DATE)
+    private LocalDateTime saleDate;
+
+    // false mientras el descuento de stock de este ítem está solo reservado en memoria (ver StockReservationLedger)
+    @NotNull
+    @Builder.Default
+    @ColumnDefault("true")
+    @Column(name = COLUMN_STOCK_APPLIED, nullable = false)
+    private Boolean stockApplied = true;
 }
@@ -0,0 +1,8 @@
+package pe.jesusamigo.backend_libreria.sale.enums;
+
+public enum SaleBatchStatus {
+    CREATED,
+    DUPLICATE,
+    REJECTED,
+    FAILED
+}
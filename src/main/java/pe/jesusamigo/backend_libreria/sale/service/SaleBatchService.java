@@ -0,0 +1,86 @@
+package pe.jesusamigo.backend_libreria.sale.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchEntryDTO;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchResultDTO;
+import pe.jesusamigo.backend_libreria.sale.entity.Sale;
+import pe.jesusamigo.backend_libreria.sale.enums.SaleBatchStatus;
+import pe.jesusamigo.backend_libreria.sale.repository.SaleRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro masivo de ventas diferidas (terminales que trabajaron sin conexión).
+ * <p>
+ * El lote se divide en bloques y cada bloque se registra en su propia transacción. Si un
+ * bloque falla por completo, sus ventas se reintentan una a una para aislar la que falla; una
+ * venta cuya clave registró otro intento concurrente del mismo lote se informa como DUPLICATE.
+ */
+@Service
+@RequiredArgsConstructor
+public class SaleBatchService {
+    private static final Logger log = LoggerFactory.getLogger(SaleBatchService.class);
+
+    private final SaleService saleService;
+    private final SaleRepository saleRepository;
+
+    @Value("${app.sales.batch.chunk-size:200}")
+    private int chunkSize;
+
+    public List<SaleBatchResultDTO> registerSales(List<SaleBatchEntryDTO> entries) {
+        List<SaleBatchResultDTO> results = new ArrayList<>(entries.size());
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<SaleBatchEntryDTO> chunk = entries.subList(from, Math.min(from + chunkSize, entries.size()));
+            try {
+                results.addAll(saleService.registerSaleChunk(chunk));
+            } catch (RuntimeException ex) {
+                log.warn("Falló el bloque de {} ventas, se reintentan individualmente: {}", chunk.size(), ex.getMessage());
+                chunk.forEach(entry -> results.addAll(registerSingle(entry)));
+            }
+        }
+        return results;
+    }
+
+    private List<SaleBatchResultDTO> registerSingle(SaleBatchEntryDTO entry) {
+        try {
+            return saleService.registerSaleChunk(List.of(entry));
+        } catch (DataIntegrityViolationException ex) {
+            // Otro intento con la misma clave (p. ej. el reintento de un lote aún en curso) la registró primero
+            List<Sale> registered = saleRepository.findByClientKeyIn(List.of(entry.getClientKey()));
+            if (!registered.isEmpty()) {
+                return List.of(SaleBatchResultDTO.builder()
+                        .clientKey(entry.getClientKey())
+                        .status(SaleBatchStatus.DUPLICATE)
+                        .saleId(registered.get(0).getId())
+                        .message("La venta ya fue registrada.")
+                        .build());
+            }
+            log.error("No se pudo registrar la venta {}", entry.getClientKey(), ex);
+            return List.of(failed(entry));
+        } catch (IllegalArgumentException ex) {
+            // Validaciones propias (p. ej. stock insuficiente): el mensaje es apto para el cliente
+            return List.of(SaleBatchResultDTO.builder()
+                    .clientKey(entry.getClientKey())
+                    .status(SaleBatchStatus.FAILED)
+                    .message(ex.getMessage())
+                    .build());
+        } catch (RuntimeException ex) {
+            log.error("No se pudo registrar la venta {}", entry.getClientKey(), ex);
+            return List.of(failed(entry));
+        }
+    }
+
+    private static SaleBatchResultDTO failed(SaleBatchEntryDTO entry) {
+        return SaleBatchResultDTO.builder()
+                .clientKey(entry.getClientKey())
+                .status(SaleBatchStatus.FAILED)
+                .message("No se pudo registrar la venta.")
+                .build();
+    }
+}
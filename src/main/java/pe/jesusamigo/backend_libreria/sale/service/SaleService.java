@@ -1,20 +1,30 @@
 package pe.jesusamigo.backend_libreria.sale.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.common.dto.CursorPage;
+import pe.jesusamigo.backend_libreria.common.pagination.CursorCodec;
+import pe.jesusamigo.backend_libreria.common.pagination.KeysetSpecification;
+import pe.jesusamigo.backend_libreria.common.pagination.SliceQueryExecutor;
 import pe.jesusamigo.backend_libreria.product.entity.Product;
 import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+import pe.jesusamigo.backend_libreria.product.service.StockReservationLedger;
 import pe.jesusamigo.backend_libreria.product.service.StockUpdateService;
+import pe.jesusamigo.backend_libreria.report.service.DailySalesRollupService;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchEntryDTO;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleBatchResultDTO;
 import pe.jesusamigo.backend_libreria.sale.dto.SaleCreateDTO;
+import pe.jesusamigo.backend_libreria.sale.dto.SaleItemCreateDTO;
 import pe.jesusamigo.backend_libreria.sale.dto.SaleResponseDTO;
 import pe.jesusamigo.backend_libreria.sale.entity.Sale;
 import pe.jesusamigo.backend_libreria.sale.entity.SaleItem;
+import pe.jesusamigo.backend_libreria.sale.enums.SaleBatchStatus;
 import pe.jesusamigo.backend_libreria.sale.mapper.SaleMapper;
 import pe.jesusamigo.backend_libreria.sale.repository.SaleRepository;
 import pe.jesusamigo.backend_libreria.sale.repository.SaleSpecification;
@@ -24,8 +34,13 @@ import pe.jesusamigo.backend_libreria.user.repository.UserRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,6 +53,9 @@ public class SaleService {
     private final ProductRepository productRepository;
     private final SaleMapper saleMapper;
     private final StockUpdateService stockUpdateService;
+    private final StockReservationLedger stockReservationLedger;
+    private final DailySalesRollupService dailySalesRollupService;
+    private final SliceQueryExecutor sliceQueryExecutor;
 
     /**
      * Registra una nueva venta y descuenta el stock de los productos vendidos.
@@ -46,16 +64,145 @@ public class SaleService {
         User user = userRepository.findById(dto.getUserId())
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con ID: " + dto.getUserId()));
 
+        // Todos los productos de la canasta en una sola consulta (IN)
+        Map<Integer, Product> productsById = findProductsById(dto.getItems());
+        Map<Integer, Integer> quantitiesByProduct = new HashMap<>();
+
+        Sale sale = buildSale(dto, user, productsById, quantitiesByProduct, LocalDateTime.now());
+
+        // Descontar stock ahora que ya validamos todo (un solo lote de UPDATE condicionales)
+        applyStock(List.of(sale), quantitiesByProduct);
+
+        Sale saved = saleRepository.save(sale);
+        dailySalesRollupService.record(List.of(saved));
+
+        return saleMapper.toResponseDTO(saved);
+    }
+
+    /**
+     * Registra un bloque de ventas en una sola transacción. Usuarios y productos se consultan
+     * una vez para todo el bloque, el stock se descuenta en un único lote y las ventas se
+     * insertan con inserciones por lotes.
+     * <p>
+     * Las ventas cuya clave de cliente ya fue registrada se informan como DUPLICATE y las que
+     * no superan la validación como REJECTED, sin afectar al resto del bloque. Si el descuento
+     * de stock falla (p. ej. por una venta concurrente) se revierte el bloque completo.
+     */
+    public List<SaleBatchResultDTO> registerSaleChunk(List<SaleBatchEntryDTO> entries) {
+        Set<String> clientKeys = entries.stream()
+                .map(SaleBatchEntryDTO::getClientKey)
+                .collect(Collectors.toSet());
+        Map<String, Integer> registeredKeys = saleRepository.findByClientKeyIn(clientKeys).stream()
+                .collect(Collectors.toMap(Sale::getClientKey, Sale::getId));
+
+        Set<Integer> userIds = entries.stream()
+                .map(entry -> entry.getSale().getUserId())
+                .collect(Collectors.toSet());
+        Map<Integer, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<Integer, Product> productsById = findProductsById(entries.stream()
+                .flatMap(entry -> entry.getSale().getItems().stream())
+                .toList());
+
+        Map<Integer, Integer> quantitiesByProduct = new HashMap<>();
+        // Un resultado por entrada, en el mismo orden; null mientras la venta no se guarda
+        List<SaleBatchResultDTO> results = new ArrayList<>(entries.size());
+        List<Integer> salePositions = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        List<Sale> sales = new ArrayList<>();
+
+        for (SaleBatchEntryDTO entry : entries) {
+            String clientKey = entry.getClientKey();
+            if (!seenKeys.add(clientKey) || registeredKeys.containsKey(clientKey)) {
+                results.add(SaleBatchResultDTO.builder()
+                        .clientKey(clientKey)
+                        .status(SaleBatchStatus.DUPLICATE)
+                        .saleId(registeredKeys.get(clientKey))
+                        .message("La venta ya fue registrada.")
+                        .build());
+                continue;
+            }
+
+            try {
+                User user = usersById.get(entry.getSale().getUserId());
+                if (user == null) {
+                    throw new IllegalArgumentException("Usuario no encontrado con ID: " + entry.getSale().getUserId());
+                }
+                LocalDateTime saleDate = entry.getSaleDate() != null ? entry.getSaleDate() : LocalDateTime.now();
+                Sale sale = buildSale(entry.getSale(), user, productsById, quantitiesByProduct, saleDate);
+                sale.setClientKey(clientKey);
+                sales.add(sale);
+                salePositions.add(results.size());
+                results.add(null);
+            } catch (IllegalArgumentException ex) {
+                results.add(SaleBatchResultDTO.builder()
+                        .clientKey(clientKey)
+                        .status(SaleBatchStatus.REJECTED)
+                        .message(ex.getMessage())
+                        .build());
+            }
+        }
+
+        applyStock(sales, quantitiesByProduct);
+        saleRepository.saveAll(sales);
+        dailySalesRollupService.record(sales);
+
+        Map<String, Integer> createdIds = new HashMap<>();
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            createdIds.put(sale.getClientKey(), sale.getId());
+            results.set(salePositions.get(i), SaleBatchResultDTO.builder()
+                    .clientKey(sale.getClientKey())
+                    .status(SaleBatchStatus.CREATED)
+                    .saleId(sale.getId())
+                    .totalAmount(sale.getTotalAmount())
+                    .build());
+        }
+        // Repeticiones dentro del mismo bloque: apuntan a la venta recién creada
+        for (SaleBatchResultDTO result : results) {
+            if (result.getStatus() == SaleBatchStatus.DUPLICATE && result.getSaleId() == null) {
+                result.setSaleId(createdIds.get(result.getClientKey()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Descuenta el stock vendido. Con la reserva en memoria habilitada solo se reserva y los
+     * ítems quedan pendientes hasta que el proceso periódico los aplica a {@code products.stock}.
+     */
+    private void applyStock(List<Sale> sales, Map<Integer, Integer> quantitiesByProduct) {
+        if (stockReservationLedger.isEnabled()) {
+            stockReservationLedger.reserve(quantitiesByProduct);
+            sales.forEach(sale -> sale.getItems().forEach(item -> item.setStockApplied(false)));
+        } else {
+            stockUpdateService.decreaseStockBySales(quantitiesByProduct);
+        }
+    }
+
+    /**
+     * Valida una venta y construye la entidad con sus ítems a precio actual.
+     * Las cantidades solo se acumulan en {@code quantitiesByProduct} si la venta es válida, de
+     * modo que el stock comprometido por ventas anteriores del mismo bloque se respeta.
+     */
+    private Sale buildSale(SaleCreateDTO dto, User user, Map<Integer, Product> productsById,
+                           Map<Integer, Integer> quantitiesByProduct, LocalDateTime saleDate) {
+        Map<Integer, Integer> saleQuantities = new HashMap<>();
         List<SaleItem> items = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         // Validación de stock y cálculo de precios reales
         for (var itemDto : dto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + itemDto.getProductId()));
+            Product product = productsById.get(itemDto.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + itemDto.getProductId());
+            }
 
-            // Validar stock antes de descontar
-            if (product.getStock() == null || product.getStock() < itemDto.getQuantity()) {
+            // Validar stock antes de descontar (acumulando líneas repetidas y lo ya comprometido)
+            int requested = saleQuantities.merge(product.getId(), itemDto.getQuantity(), Integer::sum)
+                    + quantitiesByProduct.getOrDefault(product.getId(), 0);
+            if (product.getStock() == null || product.getStock() < requested) {
                 throw new IllegalArgumentException("Stock insuficiente para el producto " + product.getTitle());
             }
 
@@ -68,6 +215,7 @@ public class SaleService {
                     .quantity(itemDto.getQuantity())
                     .unitPrice(unitPrice)
                     .totalPrice(itemTotal)
+                    .saleDate(saleDate)
                     .build();
 
             items.add(saleItem);
@@ -78,10 +226,7 @@ public class SaleService {
             throw new IllegalArgumentException("El monto entregado no es suficiente para pagar la venta.");
         }
 
-        // Descontar stock ahora que ya validamos todo
-        for (var itemDto : dto.getItems()) {
-            stockUpdateService.decreaseStockBySale(itemDto.getProductId(), itemDto.getQuantity());
-        }
+        saleQuantities.forEach((productId, quantity) -> quantitiesByProduct.merge(productId, quantity, Integer::sum));
 
         BigDecimal change = dto.getAmountPaid().subtract(totalAmount);
 
@@ -89,18 +234,22 @@ public class SaleService {
                 dto,
                 user,
                 items,
-                LocalDateTime.now(),
+                saleDate,
                 totalAmount,
                 dto.getAmountPaid(),
                 change
         );
         items.forEach(item -> item.setSale(sale));
-
-        Sale saved = saleRepository.save(sale);
-
-        return saleMapper.toResponseDTO(saved);
+        return sale;
     }
 
+    private Map<Integer, Product> findProductsById(List<SaleItemCreateDTO> items) {
+        Set<Integer> productIds = items.stream()
+                .map(SaleItemCreateDTO::getProductId)
+                .collect(Collectors.toSet());
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
 
     @Transactional(readOnly = true)
     public Optional<SaleResponseDTO> findById(Integer id) {
@@ -109,13 +258,14 @@ public class SaleService {
     }
 
     @Transactional(readOnly = true)
-    public Page<SaleResponseDTO> findAllFiltered(
+    public Slice<SaleResponseDTO> findAllFiltered(
             Integer userId,
             LocalDateTime startDate,
             LocalDateTime endDate,
             String sort, // "asc" o "desc"
             int page,
-            int size
+            int size,
+            boolean withCount // false: sin COUNT, solo indica si hay página siguiente
     ) {
         Specification<Sale> spec = Specification
                 .where(SaleSpecification.hasUserId(userId))
@@ -127,8 +277,44 @@ public class SaleService {
 
         Pageable pageable = PageRequest.of(page, size, sortOrder);
 
-        return saleRepository.findAll(spec, pageable)
-                .map(saleMapper::toResponseDTO);
+        Slice<Sale> sales = withCount
+                ? saleRepository.findAll(spec, pageable)
+                : sliceQueryExecutor.findSlice(Sale.class, spec, pageable, "user");
+        return sales.map(saleMapper::toResponseDTO);
+    }
+
+    /**
+     * Historial de ventas paginado por cursor sobre (saleDate, id): no ejecuta COUNT y el costo
+     * de cada página no depende de su profundidad.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SaleResponseDTO> findAllByCursor(
+            Integer userId,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String sort, // "asc" o "desc"
+            String cursor,
+            int size
+    ) {
+        boolean descending = !"asc".equalsIgnoreCase(sort);
+        String[] keys = CursorCodec.decode(cursor, 2);
+
+        Specification<Sale> spec = Specification
+                .where(SaleSpecification.hasUserId(userId))
+                .and(SaleSpecification.dateAfterOrEqual(startDate))
+                .and(SaleSpecification.dateBeforeOrEqual(endDate))
+                .and(keys == null ? null : KeysetSpecification.seekAfter(
+                        "saleDate", CursorCodec.toDateTime(keys[0]), Integer.valueOf(keys[1]), descending));
+
+        List<Sale> rows = saleRepository.findBy(spec, query -> query
+                .sortBy(KeysetSpecification.sort("saleDate", descending))
+                .project("user")
+                .limit(size + 1)
+                .all());
+
+        return CursorPage.of(rows, size,
+                sale -> CursorCodec.encode(sale.getSaleDate(), sale.getId()),
+                saleMapper::toResponseDTO);
     }
 
 }
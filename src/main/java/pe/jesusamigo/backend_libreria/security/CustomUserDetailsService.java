@@ -1,11 +1,15 @@
 package pe.jesusamigo.backend_libreria.security;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.role.entity.Role;
 import pe.jesusamigo.backend_libreria.user.entity.User;
 import pe.jesusamigo.backend_libreria.user.repository.UserRepository;
@@ -15,7 +19,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepo;
 
@@ -48,4 +52,29 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .disabled(!user.isActive())
                 .build();
     }
+
+    /**
+     * Guarda la contraseña recodificada cuando su hash usa un formato o una fuerza anterior a la
+     * configurada. Spring Security lo invoca tras un inicio de sesión exitoso.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepo.updatePassword(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Usuario y permisos para autenticar una solicitud con JWT. Se guarda en cache (sin la
+     * contraseña) para no consultar usuario, rol y permisos en cada solicitud; se invalida al
+     * modificar usuarios, roles o permisos.
+     */
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS, key = "#username")
+    public UserDetails loadUserForRequest(String username) {
+        return org.springframework.security.core.userdetails.User.withUserDetails(loadUserByUsername(username))
+                .password("")
+                .build();
+    }
 }
\ No newline at end of file
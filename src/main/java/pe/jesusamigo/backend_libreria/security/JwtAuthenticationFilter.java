@@ -1,8 +1,6 @@
 package pe.jesusamigo.backend_libreria.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
@@ -14,13 +12,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
-import pe.jesusamigo.backend_libreria.exception.dto.ApiError;
+import pe.jesusamigo.backend_libreria.exception.ApiErrorWriter;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -30,11 +28,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
+    private final ApiErrorWriter apiErrors;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   CustomUserDetailsService userDetailsService) {
+                                   CustomUserDetailsService userDetailsService,
+                                   TokenVersionRegistry tokenVersions,
+                                   ApiErrorWriter apiErrors) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.apiErrors = apiErrors;
     }
 
     @Override
@@ -45,53 +49,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith(TOKEN_PREFIX)) {
             String token = header.substring(TOKEN_PREFIX.length());
             try {
-                tokenProvider.validateToken(token);
-                String username = tokenProvider.getUsername(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                Claims claims = tokenProvider.parseValidatedClaims(token);
+                UserDetails userDetails = tokenVersions.isEnabled() ? fromClaims(claims) : null;
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserForRequest(claims.getSubject());
+                }
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (ExpiredJwtException ex) {
-                // Configuramos el ObjectMapper para que pueda serializar LocalDateTime
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.registerModule(new JavaTimeModule());
-                mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-                ApiError errorResponse = new ApiError(
-                        LocalDateTime.now(),
-                        HttpStatus.UNAUTHORIZED.value(),
-                        HttpStatus.UNAUTHORIZED.getReasonPhrase(),
-                        ex.getMessage(),
-                        req.getRequestURI(),
-                        null
-                );
-                res.setStatus(HttpStatus.UNAUTHORIZED.value());
-                res.setContentType("application/json");
-                mapper.writeValue(res.getOutputStream(), errorResponse);
+                apiErrors.write(res, HttpStatus.UNAUTHORIZED, ex.getMessage(), req.getRequestURI());
                 return;
-
-
             } catch (SignatureException ex) {
-                // Configuramos el ObjectMapper para que pueda serializar LocalDateTime
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.registerModule(new JavaTimeModule());
-                mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-                ApiError errorResponse = new ApiError(
-                        LocalDateTime.now(),
-                        HttpStatus.UNAUTHORIZED.value(),
-                        HttpStatus.UNAUTHORIZED.getReasonPhrase(),
-                        "The JWT token signature is invalid",
-                        req.getRequestURI(),
-                        null
-                );
-                res.setStatus(HttpStatus.UNAUTHORIZED.value());
-                res.setContentType("application/json");
-                mapper.writeValue(res.getOutputStream(), errorResponse);
+                apiErrors.write(res, HttpStatus.UNAUTHORIZED, "The JWT token signature is invalid", req.getRequestURI());
                 return;
             }
         }
         chain.doFilter(req, res);
     }
-}
\ No newline at end of file
+
+    // Modo sin estado: usuario armado con los claims firmados, o null si el token ya no está vigente
+    private UserDetails fromClaims(Claims claims) {
+        TokenAuthorities authorities = TokenAuthorities.fromClaims(claims);
+        if (authorities == null || !tokenVersions.isCurrent(claims.getSubject(), authorities, claims.getIssuedAt())) {
+            return null;
+        }
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(authorities.toGrantedAuthorities())
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package pe.jesusamigo.backend_libreria.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,7 +21,6 @@ import java.util.Date;
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
-    private static final String AUTHORITIES_KEY = "roles";
 
     @Value("${jwt.secret}")
     private String secretKeyString;
@@ -29,39 +30,46 @@ public class JwtTokenProvider {
 
     private SecretKey secretKey;
 
+    // Inmutable y seguro entre hilos: se construye una sola vez
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         this.secretKey = Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
+    /**
+     * Genera el token de un usuario ya autenticado. Incluye su rol y permisos en forma compacta
+     * (ver {@link TokenAuthorities}) para el modo sin estado.
+     */
     public String generateToken(Authentication auth) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + validityInMilliseconds);
 
-        return Jwts.builder()
-                .setSubject(auth.getName())
-                .claim(AUTHORITIES_KEY, auth.getAuthorities())
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(auth.getName());
+        TokenAuthorities authorities = TokenAuthorities.of(auth.getAuthorities());
+        if (authorities != null) {
+            builder.addClaims(authorities.toClaims());
+        }
+        return builder
                 .setIssuedAt(now)
                 .setExpiration(expiry)
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsername(String token) {
-        return parseClaims(token).getSubject();
-    }
-
-
-    public boolean validateToken(String token) {
-        parseClaims(token);
-        return true;
-    }
-
-    private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifica la firma y la expiración del token (una sola vez) y devuelve sus claims.
+     *
+     * @throws io.jsonwebtoken.ExpiredJwtException si el token expiró
+     * @throws io.jsonwebtoken.security.SignatureException si la firma no es válida
+     * @throws io.jsonwebtoken.JwtException si el token no es válido por otro motivo
+     */
+    public Claims parseValidatedClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
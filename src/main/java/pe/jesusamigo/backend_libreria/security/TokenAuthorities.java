@@ -0,0 +1,135 @@
+package pe.jesusamigo.backend_libreria.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import pe.jesusamigo.backend_libreria.role.enums.PermissionConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rol y permisos de un usuario en forma compacta para incluirlos en el JWT.
+ * <p>
+ * Los permisos de {@link PermissionConstants} viajan como un mapa de bits (por ordinal) en
+ * Base64url; los que no estén en la enumeración, por nombre. La versión es un resumen del
+ * conjunto de permisos del rol: si el rol cambia, la versión del token deja de coincidir.
+ */
+public record TokenAuthorities(String role, Set<String> permissions, long version) {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    static final String ROLE_KEY = "role";
+    static final String PERMISSIONS_KEY = "perms";
+    static final String EXTRA_PERMISSIONS_KEY = "perms_x";
+    static final String VERSION_KEY = "pv";
+
+    private static final PermissionConstants[] CATALOG = PermissionConstants.values();
+
+    /**
+     * Toma el rol ({@code ROLE_*}) y los permisos de las autoridades de un usuario autenticado.
+     *
+     * @return {@code null} si no tiene rol
+     */
+    public static TokenAuthorities of(Collection<? extends GrantedAuthority> authorities) {
+        String role = null;
+        Set<String> permissions = new HashSet<>();
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name.startsWith(ROLE_PREFIX)) {
+                role = name.substring(ROLE_PREFIX.length());
+            } else {
+                permissions.add(name);
+            }
+        }
+        return role == null ? null : new TokenAuthorities(role, permissions, version(permissions));
+    }
+
+    /**
+     * Lee el rol y los permisos de los claims de un token ya validado.
+     *
+     * @return {@code null} si el token no los incluye o no coinciden con su versión
+     * (por ejemplo, si la enumeración de permisos cambió desde que se emitió)
+     */
+    public static TokenAuthorities fromClaims(Claims claims) {
+        Object role = claims.get(ROLE_KEY);
+        Object mask = claims.get(PERMISSIONS_KEY);
+        Object version = claims.get(VERSION_KEY);
+        if (!(role instanceof String roleName) || !(mask instanceof String encoded)
+                || !(version instanceof Number number)) {
+            return null;
+        }
+
+        Set<String> permissions = new HashSet<>();
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (i >= CATALOG.length) {
+                return null;
+            }
+            permissions.add(CATALOG[i].getCode());
+        }
+        if (claims.get(EXTRA_PERMISSIONS_KEY) instanceof Collection<?> extras) {
+            extras.forEach(extra -> permissions.add(String.valueOf(extra)));
+        }
+
+        long expected = number.longValue();
+        return version(permissions) == expected ? new TokenAuthorities(roleName, permissions, expected) : null;
+    }
+
+    /**
+     * Versión de un conjunto de permisos: los primeros 64 bits del SHA-256 de sus nombres ordenados.
+     */
+    public static long version(Collection<String> permissions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String permission : new TreeSet<>(permissions)) {
+                digest.update(permission.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public Map<String, Object> toClaims() {
+        BitSet bits = new BitSet(CATALOG.length);
+        List<String> extras = new ArrayList<>();
+        for (String permission : permissions) {
+            try {
+                bits.set(PermissionConstants.fromCode(permission).ordinal());
+            } catch (IllegalArgumentException ex) {
+                // Permiso creado fuera de la enumeración
+                extras.add(permission);
+            }
+        }
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(ROLE_KEY, role);
+        claims.put(PERMISSIONS_KEY, Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray()));
+        if (!extras.isEmpty()) {
+            claims.put(EXTRA_PERMISSIONS_KEY, extras);
+        }
+        claims.put(VERSION_KEY, version);
+        return claims;
+    }
+
+    public List<GrantedAuthority> toGrantedAuthorities() {
+        List<GrantedAuthority> authorities = new ArrayList<>(permissions.size() + 1);
+        authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+        permissions.forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
+        return authorities;
+    }
+}
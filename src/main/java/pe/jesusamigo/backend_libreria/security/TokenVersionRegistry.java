@@ -0,0 +1,130 @@
+package pe.jesusamigo.backend_libreria.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versiones vigentes para autenticar solicitudes solo con los claims del JWT (modo sin estado).
+ * <p>
+ * Guarda en memoria la versión del conjunto de permisos de cada rol y, por usuario activo, la
+ * fecha de su última modificación. Un token se acepta sin consultar la base de datos si su rol
+ * conserva la misma versión y se emitió después de la última modificación del usuario; si no
+ * (usuario editado, desactivado o eliminado, permisos del rol cambiados), el filtro vuelve a
+ * cargar el usuario como en el modo normal.
+ * <p>
+ * Los datos se recargan en cada intervalo y tras el commit de los cambios de usuarios, roles y
+ * permisos hechos en esta instancia; las demás instancias los ven en el siguiente intervalo.
+ * Se habilita con {@code jwt.stateless.enabled=true}.
+ */
+@Component
+public class TokenVersionRegistry {
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private static final String SQL_ROLE_PERMISSIONS = """
+            SELECT r.name AS role, p.name AS permission
+            FROM roles r
+            LEFT JOIN roles_permissions rp ON rp.role_id = r.id
+            LEFT JOIN permissions p ON p.id = rp.permission_id
+            """;
+
+    private static final String SQL_ACTIVE_USERS = """
+            SELECT username, updated_at FROM users WHERE active = true
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    private volatile Map<String, Long> roleVersions = Map.of();
+    private volatile Map<String, Long> userUpdatedAt = Map.of();
+
+    public TokenVersionRegistry(JdbcTemplate jdbcTemplate,
+                                @Value("${jwt.stateless.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si un token emitido en {@code issuedAt} con el rol y la versión de permisos dados
+     * sigue vigente para el usuario.
+     */
+    public boolean isCurrent(String username, TokenAuthorities authorities, Date issuedAt) {
+        if (!enabled || username == null || issuedAt == null) {
+            return false;
+        }
+        Long updatedAt = userUpdatedAt.get(username);
+        Long version = roleVersions.get(authorities.role());
+        // El iat del token tiene precisión de segundos: un token del mismo segundo que el cambio se recarga
+        return updatedAt != null && issuedAt.getTime() >= updatedAt
+                && version != null && version == authorities.version();
+    }
+
+    /**
+     * Recarga las versiones al confirmarse la transacción actual (o de inmediato, si no hay una).
+     */
+    public void refreshAfterCommit() {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        refresh();
+                    } catch (RuntimeException ex) {
+                        // El cambio ya se confirmó; la próxima recarga programada lo recoge
+                        log.warn("No se pudieron recargar las versiones de JWT: {}", ex.getMessage());
+                    }
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless.refresh-interval:PT30S}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    // Sincronizado: una recarga iniciada antes de un commit no puede reemplazar a la posterior
+    private synchronized void refresh() {
+        Map<String, Set<String>> permissionsByRole = new HashMap<>();
+        jdbcTemplate.query(SQL_ROLE_PERMISSIONS, rs -> {
+            Set<String> permissions = permissionsByRole.computeIfAbsent(rs.getString("role"), role -> new HashSet<>());
+            String permission = rs.getString("permission");
+            if (permission != null) {
+                permissions.add(permission);
+            }
+        });
+        Map<String, Long> versions = new HashMap<>();
+        permissionsByRole.forEach((role, permissions) -> versions.put(role, TokenAuthorities.version(permissions)));
+
+        Map<String, Long> users = new HashMap<>();
+        jdbcTemplate.query(SQL_ACTIVE_USERS, rs -> {
+            users.put(rs.getString("username"), rs.getTimestamp("updated_at").getTime());
+        });
+
+        roleVersions = Map.copyOf(versions);
+        userUpdatedAt = Map.copyOf(users);
+        log.debug("Versiones de JWT recargadas: {} roles, {} usuarios activos", versions.size(), users.size());
+    }
+}
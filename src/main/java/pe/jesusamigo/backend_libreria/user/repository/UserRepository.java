@@ -1,6 +1,9 @@
 package pe.jesusamigo.backend_libreria.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import pe.jesusamigo.backend_libreria.user.entity.User;
 
 import java.util.Optional;
@@ -11,4 +14,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String newUsername);
+
+    /**
+     * Reemplaza solo el hash de la contraseña (recodificación al iniciar sesión). No pasa por
+     * la auditoría de la entidad: no es una modificación del usuario.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
 }
@@ -1,13 +1,16 @@
 package pe.jesusamigo.backend_libreria.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
 import pe.jesusamigo.backend_libreria.exception.ResourceNotFoundException;
 import pe.jesusamigo.backend_libreria.persons.person.repository.PersonRepository;
 import pe.jesusamigo.backend_libreria.role.entity.Role;
 import pe.jesusamigo.backend_libreria.role.repository.RoleRepository;
+import pe.jesusamigo.backend_libreria.security.TokenVersionRegistry;
 import pe.jesusamigo.backend_libreria.user.dto.UserCreateDTO;
 import pe.jesusamigo.backend_libreria.user.dto.UserResponseDTO;
 import pe.jesusamigo.backend_libreria.user.dto.UserShortResponseDTO;
@@ -29,6 +32,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final PersonRepository personRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     public UserResponseDTO createUser(UserCreateDTO dto) {
         validateNewUser(dto);
@@ -68,13 +72,16 @@ public class UserService {
 
 
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void deleteUser(Integer id) {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("Usuario no encontrado con ID: " + id);
         }
         userRepository.deleteById(id);
+        tokenVersionRegistry.refreshAfterCommit();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public UserResponseDTO updateUser(Integer id, UserCreateDTO dto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
@@ -89,6 +96,7 @@ public class UserService {
         existingUser.setRole(role);
 
         User updatedUser = userRepository.save(existingUser);
+        tokenVersionRegistry.refreshAfterCommit();
         return userMapper.toDto(updatedUser);
     }
 
@@ -0,0 +1,189 @@
+package pe.jesusamigo.backend_libreria.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+import pe.jesusamigo.backend_libreria.inventory.dto.InventoryRequestDTO;
+import pe.jesusamigo.backend_libreria.inventory.entity.StockMovement;
+import pe.jesusamigo.backend_libreria.inventory.repository.StockMovementRepository;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+import pe.jesusamigo.backend_libreria.product.service.CatalogVersion;
+import pe.jesusamigo.backend_libreria.product.service.StockReservationLedger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockMovementJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    ProductRepository productRepository;
+    @Mock
+    StockMovementRepository stockMovementRepository;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    StockReservationLedger stockReservationLedger;
+    @Mock
+    CatalogVersion catalogVersion;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<StockMovement> saved = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(productRepository.existsById(anyInt())).thenReturn(true);
+        when(stockMovementRepository.findJournalKeysIn(anyCollection())).thenReturn(Set.of());
+        when(stockMovementRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<StockMovement>) invocation.getArgument(0)).forEach(saved::add);
+            return List.of();
+        });
+        // Cada UPDATE de stock afecta una fila
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    int[] rows = new int[((Collection<?>) invocation.getArgument(1)).size()];
+                    Arrays.fill(rows, 1);
+                    return new int[][]{rows};
+                });
+    }
+
+    @Test
+    void recoversUnflushedEntriesAfterCrash() throws IOException {
+        StockMovementJournal journal = newJournal(DataSize.ofMegabytes(16));
+        String first = journal.append(request(1, 5)).getJournalKey();
+        String second = journal.append(request(2, 3)).getJournalKey();
+        // Caída: no se llama a flush ni a shutdown
+
+        StockMovementJournal recovered = newJournal(DataSize.ofMegabytes(16));
+        recovered.flush();
+
+        assertThat(saved).extracting(StockMovement::getJournalKey).containsExactly(first, second);
+        assertThat(saved).extracting(StockMovement::getQuantity).containsExactly(5, 3);
+        verify(stockReservationLedger).adjust(1, 5);
+        verify(stockReservationLedger).adjust(2, 3);
+    }
+
+    @Test
+    void deletesSegmentsOnceFlushed() throws IOException {
+        // Un byte por segmento: cada entrada abre un segmento nuevo
+        StockMovementJournal journal = newJournal(DataSize.ofBytes(1));
+        journal.append(request(1, 1));
+        journal.append(request(1, 2));
+        journal.append(request(1, 3));
+        assertThat(segments()).hasSize(3);
+
+        journal.flush();
+
+        // Solo queda el segmento actual, vacío
+        List<Path> remaining = segments();
+        assertThat(remaining).hasSize(1);
+        assertThat(Files.size(remaining.get(0))).isZero();
+
+        StockMovementJournal restarted = newJournal(DataSize.ofBytes(1));
+        saved.clear();
+        restarted.flush();
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void skipsEntriesAlreadyRegisteredBeforeCrash() throws IOException {
+        StockMovementJournal journal = newJournal(DataSize.ofMegabytes(16));
+        String registered = journal.append(request(1, 5)).getJournalKey();
+        String pending = journal.append(request(1, 7)).getJournalKey();
+        when(stockMovementRepository.findJournalKeysIn(anyCollection())).thenReturn(Set.of(registered));
+
+        newJournal(DataSize.ofMegabytes(16)).flush();
+
+        assertThat(saved).extracting(StockMovement::getJournalKey).containsExactly(pending);
+        verify(stockReservationLedger).adjust(1, 7);
+    }
+
+    @Test
+    void truncatesTornWriteAtEndOfLastSegment() throws IOException {
+        StockMovementJournal journal = newJournal(DataSize.ofMegabytes(16));
+        String key = journal.append(request(1, 4)).getJournalKey();
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        Files.writeString(segment, "{\"key\":\"torn\",\"produ", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        StockMovementJournal recovered = newJournal(DataSize.ofMegabytes(16));
+        assertThat(Files.size(segment)).isEqualTo(intact);
+        recovered.flush();
+
+        assertThat(saved).extracting(StockMovement::getJournalKey).containsExactly(key);
+    }
+
+    @Test
+    void failsOnCorruptionInsideSegment() throws IOException {
+        StockMovementJournal journal = newJournal(DataSize.ofMegabytes(16));
+        journal.append(request(1, 4));
+        Path segment = segments().get(0);
+        String valid = Files.readString(segment, StandardCharsets.UTF_8);
+        Files.writeString(segment, "no es json\n" + valid, StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> newJournal(DataSize.ofMegabytes(16)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupto");
+        verify(stockMovementRepository, never()).saveAll(any());
+    }
+
+    private StockMovementJournal newJournal(DataSize segmentSize) throws IOException {
+        StockMovementJournal journal = new StockMovementJournal(productRepository, stockMovementRepository,
+                jdbcTemplate, transactionManager, objectMapper, stockReservationLedger, catalogVersion);
+        ReflectionTestUtils.setField(journal, "batchSize", 500);
+        ReflectionTestUtils.setField(journal, "walEnabled", true);
+        ReflectionTestUtils.setField(journal, "walFsync", false);
+        ReflectionTestUtils.setField(journal, "walPath", directory.resolve("stock-journal.wal"));
+        ReflectionTestUtils.setField(journal, "walSegmentSize", segmentSize);
+        journal.openWal();
+        return journal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static InventoryRequestDTO request(int productId, int quantity) {
+        return InventoryRequestDTO.builder().productId(productId).quantity(quantity).reason("Prueba").build();
+    }
+}
@@ -0,0 +1,156 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pe.jesusamigo.backend_libreria.product.dto.AuthorResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.CategoryResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.EditorialResponseDTO;
+import pe.jesusamigo.backend_libreria.product.dto.ProductResponseDTO;
+import pe.jesusamigo.backend_libreria.product.event.ProductChangedEvent;
+import pe.jesusamigo.backend_libreria.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFilterIndexTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    private ProductFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAllFilterRows()).thenReturn(List.of(
+                row(1, 10, 20, 30, "10.00", true),
+                row(2, 10, 21, 30, "20.00", true),
+                row(3, 11, 20, 31, "20.00", true),
+                row(4, 10, 20, 30, "30.00", false),
+                row(5, 10, 20, 31, "40.00", true)));
+        index = new ProductFilterIndex(productRepository, true);
+    }
+
+    @Test
+    void isNotReadyUntilLoaded() {
+        assertThat(index.isReady()).isFalse();
+        index.rebuild();
+        assertThat(index.isReady()).isTrue();
+    }
+
+    @Test
+    void intersectsFilters() {
+        index.rebuild();
+
+        assertThat(query(10, 20, null, null, null, null).ids()).containsExactly(1, 4, 5);
+        assertThat(query(10, 20, 31, null, null, null).ids()).containsExactly(5);
+        assertThat(query(10, 20, null, true, null, null).ids()).containsExactly(1, 5);
+    }
+
+    @Test
+    void unknownFilterValueMatchesNothing() {
+        index.rebuild();
+
+        ProductFilterIndex.Result result = query(99, null, null, null, null, null);
+
+        assertThat(result.ids()).isEmpty();
+        assertThat(result.total()).isZero();
+    }
+
+    @Test
+    void priceRangeIsInclusiveAndIgnoresScale() {
+        index.rebuild();
+
+        assertThat(query(null, null, null, null, new BigDecimal("20"), new BigDecimal("30")).ids())
+                .containsExactly(2, 3, 4);
+        assertThat(query(null, null, null, null, new BigDecimal("40.00"), null).ids()).containsExactly(5);
+        assertThat(query(null, null, null, null, null, new BigDecimal("10")).ids()).containsExactly(1);
+    }
+
+    @Test
+    void sortsByPriceThenIdInBothDirections() {
+        index.rebuild();
+
+        assertThat(index.query(null, null, null, null, null, null, false, 0, 10).ids()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(index.query(null, null, null, null, null, null, true, 0, 10).ids()).containsExactly(5, 4, 3, 2, 1);
+    }
+
+    @Test
+    void pagesWithOffsetAndCountsTotal() {
+        index.rebuild();
+
+        ProductFilterIndex.Result page = index.query(null, null, null, null, null, null, false, 1, 2);
+        assertThat(page.ids()).containsExactly(2, 3);
+        assertThat(page.total()).isEqualTo(5);
+
+        ProductFilterIndex.Result beyond = index.query(10, null, null, true, null, null, true, 5, 2);
+        assertThat(beyond.ids()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(3);
+    }
+
+    @Test
+    void movesProductWhenCategoryAndPriceChange() {
+        index.rebuild();
+
+        index.onProductChanged(changed(3, 10, 20, 31, "5.00", true));
+
+        assertThat(query(11, null, null, null, null, null).ids()).isEmpty();
+        assertThat(query(10, 20, null, null, null, null).ids()).containsExactly(3, 1, 4, 5);
+        assertThat(query(null, null, null, null, new BigDecimal("20"), new BigDecimal("20")).ids()).containsExactly(2);
+    }
+
+    @Test
+    void removesDeletedAndTracksActiveFlag() {
+        index.rebuild();
+
+        index.onProductChanged(new ProductChangedEvent(5, null));
+        index.onProductChanged(changed(4, 10, 20, 30, "30.00", true));
+
+        assertThat(query(10, 20, null, true, null, null).ids()).containsExactly(1, 4);
+        assertThat(query(null, null, null, null, null, null).total()).isEqualTo(4);
+    }
+
+    @Test
+    void appliesChangesCommittedDuringLoad() {
+        // Llega antes de que termine la carga, que aún devuelve el estado anterior
+        index.onProductChanged(changed(1, 11, 20, 30, "10.00", true));
+        index.onProductChanged(new ProductChangedEvent(2, null));
+
+        index.rebuild();
+
+        assertThat(query(11, null, null, null, null, null).ids()).containsExactly(1, 3);
+        assertThat(query(null, 21, null, null, null, null).ids()).isEmpty();
+    }
+
+    private ProductFilterIndex.Result query(Integer categoryId, Integer editorialId, Integer authorId,
+                                            Boolean onlyActive, BigDecimal minPrice, BigDecimal maxPrice) {
+        return index.query(categoryId, editorialId, authorId, onlyActive, minPrice, maxPrice, false, 0, 10);
+    }
+
+    private static ProductChangedEvent changed(int id, int categoryId, int editorialId, int authorId,
+                                               String price, boolean active) {
+        return new ProductChangedEvent(id, ProductResponseDTO.builder()
+                .id(id)
+                .category(CategoryResponseDTO.builder().id(categoryId).build())
+                .editorial(EditorialResponseDTO.builder().id(editorialId).build())
+                .author(AuthorResponseDTO.builder().id(authorId).build())
+                .price(new BigDecimal(price))
+                .active(active)
+                .build());
+    }
+
+    private static ProductRepository.ProductFilterRow row(int id, int categoryId, int editorialId, int authorId,
+                                                          String price, boolean active) {
+        return new FilterRow(id, categoryId, editorialId, authorId, new BigDecimal(price), active);
+    }
+
+    private record FilterRow(Integer getId, Integer getCategoryId, Integer getEditorialId, Integer getAuthorId,
+                             BigDecimal getPrice, Boolean getActive) implements ProductRepository.ProductFilterRow {
+    }
+}
@@ -0,0 +1,45 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import pe.jesusamigo.backend_libreria.config.CacheConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cantidad de sentencias del listado de productos con la cache de referencia fría: la página,
+ * el conteo y a lo sumo una consulta por autor, categoría y editorial (no una por fila).
+ * Usa la base de datos configurada, igual que {@code BackendLibreriaApplicationTests}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductListingStatementCountTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingLoadsReferencesOncePerTable() {
+        for (String cache : new String[]{CacheConfig.AUTHORS, CacheConfig.CATEGORIES, CacheConfig.EDITORIALS}) {
+            cacheManager.getCache(cache).clear();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        productService.findAllFiltered(null, null, null, null, null, null, "asc", 0, PAGE_SIZE, true);
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+}
@@ -0,0 +1,193 @@
+package pe.jesusamigo.backend_libreria.product.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockReservationLedgerTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    CatalogVersion catalogVersion;
+
+    private final Map<Integer, Integer> stockInDatabase = new HashMap<>();
+    private StockReservationLedger ledger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Disponible por producto según la base; un producto sin fila no existe
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object.class))).thenAnswer(invocation -> {
+            Integer stock = stockInDatabase.get((Integer) invocation.getArgument(2));
+            return stock == null ? List.of() : List.of(stock);
+        });
+        ledger = new StockReservationLedger(jdbcTemplate, catalogVersion, true, 5000);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservesUntilStockRunsOut() {
+        stockInDatabase.put(1, 5);
+
+        ledger.reserve(Map.of(1, 3));
+        ledger.reserve(Map.of(1, 2));
+
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Stock insuficiente");
+        // El contador se cargó una sola vez
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(1));
+    }
+
+    @Test
+    void reservesAllProductsOrNone() {
+        stockInDatabase.put(1, 10);
+        stockInDatabase.put(2, 1);
+
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 4, 2, 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Lo tomado del producto 1 antes de fallar el 2 se devolvió
+        ledger.reserve(Map.of(1, 10));
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUnknownProduct() {
+        assertThatThrownBy(() -> ledger.reserve(Map.of(99, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Producto no encontrado");
+    }
+
+    @Test
+    void releasesReservationOnRollback() {
+        stockInDatabase.put(1, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.reserve(Map.of(1, 2));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        ledger.reserve(Map.of(1, 2));
+    }
+
+    @Test
+    void keepsReservationOnCommit() {
+        stockInDatabase.put(1, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.reserve(Map.of(1, 2));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void adjustAddsIncreaseOnlyAfterCommit() {
+        stockInDatabase.put(1, 0);
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1))).isInstanceOf(IllegalArgumentException.class);
+
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.adjust(1, 3);
+        List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Antes del commit el aumento aún no está disponible
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1))).isInstanceOf(IllegalArgumentException.class);
+        pending.forEach(TransactionSynchronization::afterCommit);
+        ledger.reserve(Map.of(1, 3));
+    }
+
+    @Test
+    void adjustReservesDecreaseImmediately() {
+        stockInDatabase.put(1, 5);
+
+        ledger.adjust(1, -4);
+
+        assertThatThrownBy(() -> ledger.adjust(1, -2)).isInstanceOf(IllegalArgumentException.class);
+        ledger.reserve(Map.of(1, 1));
+    }
+
+    @Test
+    void concurrentSalesNeverOversell() throws Exception {
+        int stock = 1000;
+        int threads = 16;
+        int attemptsPerThread = 200;
+        stockInDatabase.put(1, stock);
+        stockInDatabase.put(2, stock);
+
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            // Cada venta lleva una unidad de ambos productos
+                            ledger.reserve(Map.of(1, 1, 2, 1));
+                            sold.incrementAndGet();
+                        } catch (IllegalArgumentException ex) {
+                            // Sin stock: venta rechazada
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sold.get()).isEqualTo(stock);
+        assertThatThrownBy(() -> ledger.reserve(Map.of(1, 1))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ledger.reserve(Map.of(2, 1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+    }
+}
@@ -0,0 +1,102 @@
+package pe.jesusamigo.backend_libreria.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import pe.jesusamigo.backend_libreria.role.enums.PermissionConstants;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenAuthoritiesTest {
+
+    private final SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+
+    @Test
+    void roundTripsEnumPermissions() {
+        Set<String> permissions = Set.of(PermissionConstants.CREATE_PERSON.getCode(),
+                PermissionConstants.GET_AUTHORS.getCode(), last().getCode());
+        TokenAuthorities authorities = new TokenAuthorities("ADMIN", permissions, TokenAuthorities.version(permissions));
+
+        Map<String, Object> claims = authorities.toClaims();
+        assertThat(claims).doesNotContainKey(TokenAuthorities.EXTRA_PERMISSIONS_KEY);
+
+        assertThat(TokenAuthorities.fromClaims(signAndParse(claims))).isEqualTo(authorities);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roundTripsPermissionsOutsideTheEnum() {
+        Set<String> permissions = Set.of(PermissionConstants.GET_PERSON.getCode(), "EXPORT_LEDGER", "AUDIT_VIEW");
+        TokenAuthorities authorities = new TokenAuthorities("AUDITOR", permissions, TokenAuthorities.version(permissions));
+
+        Map<String, Object> claims = authorities.toClaims();
+        assertThat((List<Object>) claims.get(TokenAuthorities.EXTRA_PERMISSIONS_KEY))
+                .containsExactlyInAnyOrder("EXPORT_LEDGER", "AUDIT_VIEW");
+
+        assertThat(TokenAuthorities.fromClaims(signAndParse(claims))).isEqualTo(authorities);
+    }
+
+    @Test
+    void roundTripsRoleWithoutPermissions() {
+        TokenAuthorities authorities = new TokenAuthorities("GUEST", Set.of(), TokenAuthorities.version(Set.of()));
+
+        assertThat(TokenAuthorities.fromClaims(signAndParse(authorities.toClaims()))).isEqualTo(authorities);
+    }
+
+    @Test
+    void rejectsVersionThatDoesNotMatchPermissions() {
+        Set<String> permissions = Set.of(PermissionConstants.GET_PERSON.getCode());
+        Map<String, Object> claims = new TokenAuthorities("ADMIN", permissions, TokenAuthorities.version(permissions)).toClaims();
+        claims.put(TokenAuthorities.VERSION_KEY, TokenAuthorities.version(permissions) + 1);
+
+        assertThat(TokenAuthorities.fromClaims(signAndParse(claims))).isNull();
+    }
+
+    @Test
+    void rejectsBitOutsideTheEnum() {
+        Set<String> permissions = Set.of(PermissionConstants.GET_PERSON.getCode());
+        Map<String, Object> claims = new TokenAuthorities("ADMIN", permissions, TokenAuthorities.version(permissions)).toClaims();
+        BitSet bits = new BitSet();
+        bits.set(PermissionConstants.GET_PERSON.ordinal());
+        bits.set(PermissionConstants.values().length);
+        claims.put(TokenAuthorities.PERMISSIONS_KEY, Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray()));
+
+        assertThat(TokenAuthorities.fromClaims(signAndParse(claims))).isNull();
+    }
+
+    @Test
+    void rejectsClaimsWithoutAuthorities() {
+        assertThat(TokenAuthorities.fromClaims(signAndParse(Map.of()))).isNull();
+    }
+
+    @Test
+    void versionIgnoresOrder() {
+        assertThat(TokenAuthorities.version(List.of("A", "B", "C")))
+                .isEqualTo(TokenAuthorities.version(List.of("C", "A", "B")))
+                .isNotEqualTo(TokenAuthorities.version(List.of("A", "B")));
+    }
+
+    // Serializa y firma como un JWT real, de modo que los tipos sean los que ve el filtro
+    private Claims signAndParse(Map<String, Object> claims) {
+        String token = Jwts.builder()
+                .addClaims(claims)
+                .setSubject("ana")
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static PermissionConstants last() {
+        PermissionConstants[] values = PermissionConstants.values();
+        return values[values.length - 1];
+    }
+}
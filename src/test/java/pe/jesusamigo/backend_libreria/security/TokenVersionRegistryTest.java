@@ -0,0 +1,93 @@
+package pe.jesusamigo.backend_libreria.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2026-01-10T12:00:00Z");
+    private static final Set<String> ADMIN_PERMISSIONS = Set.of("GET_PERSON", "CREATE_PERSON");
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet rolePermissions = mock(ResultSet.class);
+        when(rolePermissions.getString("role")).thenReturn("ADMIN");
+        when(rolePermissions.getString("permission")).thenReturn("GET_PERSON", "CREATE_PERSON");
+        ResultSet users = mock(ResultSet.class);
+        when(users.getString("username")).thenReturn("ana");
+        when(users.getTimestamp("updated_at")).thenReturn(Timestamp.from(UPDATED_AT));
+
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (sql.contains("roles_permissions")) {
+                handler.processRow(rolePermissions);
+                handler.processRow(rolePermissions);
+            } else {
+                handler.processRow(users);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        registry = new TokenVersionRegistry(jdbcTemplate, true);
+        registry.scheduledRefresh();
+    }
+
+    @Test
+    void acceptsTokenIssuedAfterLastUserChange() {
+        assertThat(registry.isCurrent("ana", admin(), Date.from(UPDATED_AT.plusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void rejectsTokenIssuedBeforeLastUserChange() {
+        assertThat(registry.isCurrent("ana", admin(), Date.from(UPDATED_AT.minusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void rejectsTokenWhoseRolePermissionsChanged() {
+        Set<String> previous = Set.of("GET_PERSON");
+        TokenAuthorities stale = new TokenAuthorities("ADMIN", previous, TokenAuthorities.version(previous));
+
+        assertThat(registry.isCurrent("ana", stale, Date.from(UPDATED_AT.plusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void rejectsInactiveOrUnknownUser() {
+        assertThat(registry.isCurrent("luis", admin(), Date.from(UPDATED_AT.plusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void rejectsEverythingWhenDisabled() {
+        TokenVersionRegistry disabled = new TokenVersionRegistry(jdbcTemplate, false);
+
+        assertThat(disabled.isCurrent("ana", admin(), Date.from(UPDATED_AT.plusSeconds(60)))).isFalse();
+    }
+
+    private static TokenAuthorities admin() {
+        return new TokenAuthorities("ADMIN", ADMIN_PERMISSIONS, TokenAuthorities.version(ADMIN_PERMISSIONS));
+    }
+}